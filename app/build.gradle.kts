@@ -38,6 +38,9 @@ android {
 }
 
 dependencies {
+    // Intent matching, utterance parsing and JSON extraction (plain Java, benchmarked with JMH)
+    implementation(project(":core"))
+
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
@@ -67,6 +70,8 @@ dependencies {
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
+    // Stub API server for the replay harness
+    androidTestImplementation("com.squareup.okhttp3:mockwebserver:4.12.0")
 
     // CameraX dependencies
     val camerax_version = "1.3.0"
@@ -0,0 +1,245 @@
+package com.nayanpote.voxnayanai;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays recorded transcripts through VoxAIProcessor.processCommand against StubApiServer
+ * at increasing concurrency, and reports throughput, latency percentiles and peak thread and
+ * connection counts per level. Compare the reports between builds to catch regressions in
+ * pooling, caching and fan-out; the assertions only check that every command was answered.
+ *
+ * Run with `./gradlew connectedDebugAndroidTest` and read the report from logcat (tag
+ * ReplayHarness) or the instrumentation output. The stub runs on the device, so no network is
+ * needed: ConnectivityMonitor is overridden to report unmetered Wi-Fi. Breakers, learned
+ * timeouts, cached and indexed answers are reset before each level, since they persist across
+ * runs and would otherwise carry one profile's failures and answers into the next. The stub
+ * speaks HTTP/1.1 only, so connection counts are higher than against HTTP/2 hosts.
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class ReplayHarnessTest {
+    private static final String TAG = "ReplayHarness";
+
+    private static final int[] CONCURRENCY_LEVELS = {1, 2, 4, 8, 16};
+    private static final int COMMANDS_PER_LEVEL = 120;
+    private static final long LEVEL_TIMEOUT_SECONDS = 180;
+    private static final long SAMPLE_INTERVAL_MS = 50;
+    private static final int[] PERCENTILES = {50, 95, 99};
+
+    private final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private StubApiServer server;
+    private VoxAIProcessor processor;
+    private List<String> transcripts;
+
+    @Before
+    public void setUp() throws IOException {
+        transcripts = loadTranscripts();
+        server = new StubApiServer();
+        server.start();
+        VoxHttpClient.setBaseUrlOverride(server.url());
+        ConnectivityMonitor.setSnapshotOverride(new ConnectivityMonitor.Snapshot(
+                ConnectivityMonitor.Transport.WIFI, true, false, false, 0));
+
+        Context context = instrumentation.getTargetContext();
+        instrumentation.runOnMainSync(() -> processor = new VoxAIProcessor(context));
+        resetState();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        resetState();
+        ConnectivityMonitor.setSnapshotOverride(null);
+        VoxHttpClient.setBaseUrlOverride(null);
+        server.shutdown();
+    }
+
+    // Everything that outlives a command, in memory or on disk, goes back to a first launch
+    private void resetState() {
+        ResponseCache cache = ResponseCache.getInstance();
+        if (cache != null) {
+            cache.clear();
+        }
+        CircuitBreakers breakers = CircuitBreakers.getInstance();
+        if (breakers != null) {
+            breakers.reset();
+        }
+        AdaptiveTimeouts.reset();
+        KnowledgeIndex index = KnowledgeIndex.getInstance();
+        if (index != null) {
+            index.reset();
+        }
+        instrumentation.runOnMainSync(() -> {
+            NetworkHelper.discardPrefetched();
+            HackerNewsFeed.getInstance().reset();
+        });
+    }
+
+    @Test
+    public void replayWithTypicalLatency() throws InterruptedException {
+        server.setLatency(80, 120);
+        server.setErrorRate(0);
+        server.setPaddingBytes(0);
+        replayAtEachLevel("typical");
+    }
+
+    @Test
+    public void replayWithSlowFailingLargeResponses() throws InterruptedException {
+        server.setLatency(600, 900);
+        server.setErrorRate(0.1);
+        // Within most endpoints' byte budgets, but over the 1 KB ones, which then fail fast
+        server.setPaddingBytes(24 * 1024);
+        replayAtEachLevel("degraded");
+    }
+
+    private void replayAtEachLevel(String profile) throws InterruptedException {
+        for (int concurrency : CONCURRENCY_LEVELS) {
+            // Each level starts cold; repeats within the level still hit the cache
+            resetState();
+            server.resetCounters();
+            replay(profile, concurrency);
+        }
+    }
+
+    private void replay(String profile, int concurrency) throws InterruptedException {
+        AtomicLongArray latencies = new AtomicLongArray(COMMANDS_PER_LEVEL);
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch answered = new CountDownLatch(COMMANDS_PER_LEVEL);
+
+        int[] peakThreads = new int[1];
+        int[] peakConnections = new int[1];
+        int[] peakExecutorThreads = new int[1];
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            peakThreads[0] = Math.max(peakThreads[0], Thread.getAllStackTraces().size());
+            peakConnections[0] = Math.max(peakConnections[0], VoxHttpClient.getConnectionCount());
+            peakExecutorThreads[0] = Math.max(peakExecutorThreads[0], NetworkExecutor.getInstance().getActiveCount());
+        }, 0, SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        // Each slot issues its next command when the previous one answers
+        Runnable[] issue = new Runnable[1];
+        issue[0] = () -> {
+            int index = started.getAndIncrement();
+            if (index >= COMMANDS_PER_LEVEL) return;
+            String command = transcripts.get(index % transcripts.size());
+            long start = SystemClock.elapsedRealtimeNanos();
+            processor.processCommand(command, new VoxAIProcessor.AIResponseCallback() {
+                @Override
+                public void onResponse(String response) {
+                    finish();
+                }
+
+                @Override
+                public void onError(String error) {
+                    errors.incrementAndGet();
+                    finish();
+                }
+
+                private void finish() {
+                    latencies.set(index, SystemClock.elapsedRealtimeNanos() - start);
+                    answered.countDown();
+                    mainHandler.post(issue[0]);
+                }
+            });
+        };
+
+        long begin = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < concurrency; i++) {
+            mainHandler.post(issue[0]);
+        }
+        boolean finished = answered.await(LEVEL_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        long elapsedNanos = SystemClock.elapsedRealtimeNanos() - begin;
+        sampler.shutdownNow();
+        sampler.awaitTermination(1, TimeUnit.SECONDS);
+
+        int completed = COMMANDS_PER_LEVEL - (int) answered.getCount();
+        long[] sorted = new long[completed];
+        int n = 0;
+        for (int i = 0; i < COMMANDS_PER_LEVEL && n < completed; i++) {
+            if (latencies.get(i) > 0) sorted[n++] = latencies.get(i) / 1_000_000;
+        }
+        Arrays.sort(sorted, 0, n);
+
+        String report = String.format(Locale.US,
+                "%s concurrency=%d: %.1f commands/s, latency ms %s, errors=%d, threads<=%d,"
+                        + " executor threads<=%d, pooled connections<=%d, server requests=%d"
+                        + " connections=%d injected errors=%d unrouted=%d",
+                profile, concurrency, completed / (elapsedNanos / 1e9), percentiles(sorted, n),
+                errors.get(), peakThreads[0], peakExecutorThreads[0], peakConnections[0],
+                server.getRequestCount(), server.getConnectionCount(), server.getInjectedErrorCount(),
+                server.getUnroutedCount());
+        Log.i(TAG, report);
+        Bundle status = new Bundle();
+        status.putString(Instrumentation.REPORT_KEY_STREAMRESULT, report + "\n");
+        instrumentation.sendStatus(0, status);
+
+        assertTrue(profile + " concurrency=" + concurrency + " timed out", finished);
+        assertEquals("Commands without an answer", COMMANDS_PER_LEVEL, completed);
+        assertEquals("Requests the stub has no recording for", 0, server.getUnroutedCount());
+    }
+
+    // Nearest-rank, like LatencyTracer
+    private static String percentiles(long[] sorted, int n) {
+        if (n == 0) return "n=0";
+        StringBuilder result = new StringBuilder();
+        for (int p : PERCENTILES) {
+            int rank = (int) Math.ceil(p / 100.0 * n);
+            result.append('p').append(p).append('=').append(sorted[Math.max(rank, 1) - 1]).append(' ');
+        }
+        return result.append("n=").append(n).toString();
+    }
+
+    private static List<String> loadTranscripts() throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (InputStream in = ReplayHarnessTest.class.getResourceAsStream("/replay/transcripts.txt")) {
+            if (in == null) {
+                throw new IOException("Missing replay/transcripts.txt");
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    lines.add(line);
+                }
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,188 @@
+package com.nayanpote.voxnayanai;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+/**
+ * Local stand-in for every ApiEndpoint, serving the responses recorded under
+ * resources/replay/responses. Point the app at it with VoxHttpClient.setBaseUrlOverride(url()).
+ *
+ * Latency, error rate and payload size can be changed while the server runs. Payloads are
+ * grown by leading whitespace, so a padded response still parses to the same answer but has
+ * to be read past before the first field.
+ */
+final class StubApiServer {
+
+    private static final String RESPONSES = "/replay/responses/";
+
+    private static final class Route {
+        final String pathPrefix;
+        final byte[] body;
+        final boolean json;
+
+        Route(String pathPrefix, byte[] body, boolean json) {
+            this.pathPrefix = pathPrefix;
+            this.body = body;
+            this.json = json;
+        }
+    }
+
+    private final MockWebServer server = new MockWebServer();
+    // Longest prefix first, so HACKER_NEWS_ITEM wins over a shorter prefix on the same host
+    private final List<Route> routes = new ArrayList<>();
+
+    private volatile long latencyMs;
+    private volatile long jitterMs;
+    private volatile double errorRate;
+    private volatile int paddingBytes;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong unrouted = new AtomicLong();
+
+    StubApiServer() throws IOException {
+        for (ApiEndpoint endpoint : ApiEndpoint.values()) {
+            String name = endpoint.name().toLowerCase();
+            byte[] body = readResource(RESPONSES + name + ".json");
+            boolean json = body != null;
+            if (body == null) {
+                body = readResource(RESPONSES + name + ".txt");
+            }
+            if (body == null) continue;
+
+            HttpUrl url = HttpUrl.get(endpoint.url);
+            routes.add(new Route("/" + url.host() + url.encodedPath(), body, json));
+        }
+        routes.sort((a, b) -> Integer.compare(b.pathPrefix.length(), a.pathPrefix.length()));
+
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return respond(request);
+            }
+        });
+    }
+
+    void start() throws IOException {
+        server.start();
+    }
+
+    void shutdown() throws IOException {
+        server.shutdown();
+    }
+
+    HttpUrl url() {
+        return server.url("/");
+    }
+
+    // Time to response headers is latencyMs plus a uniform random 0..jitterMs
+    void setLatency(long latencyMs, long jitterMs) {
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+    }
+
+    // Fraction of requests answered with HTTP 503
+    void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    // Extra bytes in front of every JSON response
+    void setPaddingBytes(int paddingBytes) {
+        this.paddingBytes = paddingBytes;
+    }
+
+    void resetCounters() {
+        requests.set(0);
+        connections.set(0);
+        injectedErrors.set(0);
+        unrouted.set(0);
+    }
+
+    long getRequestCount() {
+        return requests.get();
+    }
+
+    // Connections the client opened; a request with sequence number 0 is the first on its connection
+    long getConnectionCount() {
+        return connections.get();
+    }
+
+    long getInjectedErrorCount() {
+        return injectedErrors.get();
+    }
+
+    long getUnroutedCount() {
+        return unrouted.get();
+    }
+
+    private MockResponse respond(RecordedRequest request) {
+        requests.incrementAndGet();
+        if (request.getSequenceNumber() == 0) {
+            connections.incrementAndGet();
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0);
+
+        if (errorRate > 0 && random.nextDouble() < errorRate) {
+            injectedErrors.incrementAndGet();
+            return new MockResponse().setResponseCode(503).setHeadersDelay(delay, TimeUnit.MILLISECONDS);
+        }
+
+        Route route = find(request.getRequestUrl());
+        if (route == null) {
+            unrouted.incrementAndGet();
+            return new MockResponse().setResponseCode(404);
+        }
+
+        byte[] body = route.body;
+        if (route.json && paddingBytes > 0) {
+            body = new byte[paddingBytes + route.body.length];
+            Arrays.fill(body, 0, paddingBytes, (byte) ' ');
+            System.arraycopy(route.body, 0, body, paddingBytes, route.body.length);
+        }
+        return new MockResponse()
+                .setHeader("Content-Type", route.json ? "application/json; charset=utf-8" : "text/plain; charset=utf-8")
+                .setBody(new Buffer().write(body))
+                .setHeadersDelay(delay, TimeUnit.MILLISECONDS);
+    }
+
+    private Route find(HttpUrl url) {
+        if (url == null) return null;
+        String path = url.encodedPath();
+        for (Route route : routes) {
+            if (path.startsWith(route.pathPrefix)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static byte[] readResource(String name) throws IOException {
+        try (InputStream in = StubApiServer.class.getResourceAsStream(name)) {
+            if (in == null) return null;
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.nayanpote.voxnayanai;
+
+import android.os.SystemClock;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * Connect and read deadlines learned per endpoint. Every call's time to response headers goes
+ * into a rolling histogram for its endpoint, and the deadlines become p99 × DEADLINE_FACTOR,
+ * clamped between a floor and the endpoint's configured limits. Until an endpoint has
+ * MIN_SAMPLES calls the configured timeouts in ApiEndpoint apply unchanged.
+ *
+ * A call that times out is recorded at its deadline, so an endpoint that slows down pushes its
+ * own deadlines back up instead of being cut off call after call.
+ */
+public final class AdaptiveTimeouts {
+
+    private static final double DEADLINE_FACTOR = 3.0;
+    private static final double PERCENTILE = 0.99;
+    private static final int MIN_SAMPLES = 20;
+    private static final int MIN_CONNECT_MS = 2000;
+    private static final int MIN_READ_MS = 1500;
+
+    private static final Map<ApiEndpoint, LatencyHistogram> HISTOGRAMS = new EnumMap<>(ApiEndpoint.class);
+
+    static {
+        for (ApiEndpoint endpoint : ApiEndpoint.values()) {
+            HISTOGRAMS.put(endpoint, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Log-spaced buckets from 10 ms to about a minute. Counts are halved every DECAY_INTERVAL
+     * samples, so old latencies fade out instead of dominating forever.
+     */
+    static final class LatencyHistogram {
+        private static final double MIN_BUCKET_MS = 10;
+        private static final double BUCKET_GROWTH = 1.25;
+        private static final int BUCKETS = 40;
+        private static final int DECAY_INTERVAL = 200;
+
+        private final long[] counts = new long[BUCKETS];
+        private long total;
+        private int sinceDecay;
+
+        synchronized void record(long latencyMs) {
+            counts[bucketFor(latencyMs)]++;
+            total++;
+            if (++sinceDecay >= DECAY_INTERVAL) {
+                sinceDecay = 0;
+                total = 0;
+                for (int i = 0; i < BUCKETS; i++) {
+                    counts[i] /= 2;
+                    total += counts[i];
+                }
+            }
+        }
+
+        // Upper bound of the bucket holding the percentile, or -1 with too few samples
+        synchronized long percentile(double fraction) {
+            if (total < MIN_SAMPLES) return -1;
+            long rank = (long) Math.ceil(fraction * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) return upperBound(i);
+            }
+            return upperBound(BUCKETS - 1);
+        }
+
+        synchronized void clear() {
+            Arrays.fill(counts, 0);
+            total = 0;
+            sinceDecay = 0;
+        }
+
+        synchronized long sampleCount() {
+            return total;
+        }
+
+        private static int bucketFor(long latencyMs) {
+            if (latencyMs <= MIN_BUCKET_MS) return 0;
+            int bucket = (int) Math.ceil(Math.log(latencyMs / MIN_BUCKET_MS) / Math.log(BUCKET_GROWTH));
+            return Math.min(bucket, BUCKETS - 1);
+        }
+
+        private static long upperBound(int bucket) {
+            return (long) Math.ceil(MIN_BUCKET_MS * Math.pow(BUCKET_GROWTH, bucket));
+        }
+    }
+
+    private AdaptiveTimeouts() {
+    }
+
+    public static int connectTimeoutMs(ApiEndpoint endpoint) {
+        return deadline(endpoint, endpoint.connectTimeoutMs, MIN_CONNECT_MS, endpoint.connectTimeoutMs);
+    }
+
+    // The whole call is still bounded by endpoint.callTimeoutMs, so a slow but healthy API may read for that long
+    public static int readTimeoutMs(ApiEndpoint endpoint) {
+        return deadline(endpoint, endpoint.readTimeoutMs, MIN_READ_MS, endpoint.callTimeoutMs);
+    }
+
+    private static int deadline(ApiEndpoint endpoint, int configuredMs, int floorMs, int ceilingMs) {
+        long p99 = HISTOGRAMS.get(endpoint).percentile(PERCENTILE);
+        if (p99 < 0) {
+            return configuredMs;
+        }
+        return (int) Math.max(floorMs, Math.min(ceilingMs, p99 * DEADLINE_FACTOR));
+    }
+
+    // Runs a call with the endpoint's current deadlines, from the endpoint client's interceptor
+    static Response intercept(ApiEndpoint endpoint, Interceptor.Chain chain) throws IOException {
+        LatencyHistogram histogram = HISTOGRAMS.get(endpoint);
+        long start = SystemClock.elapsedRealtime();
+        try {
+            Response response = chain
+                    .withConnectTimeout(connectTimeoutMs(endpoint), TimeUnit.MILLISECONDS)
+                    .withReadTimeout(readTimeoutMs(endpoint), TimeUnit.MILLISECONDS)
+                    .proceed(chain.request());
+            histogram.record(SystemClock.elapsedRealtime() - start);
+            return response;
+        } catch (SocketTimeoutException e) {
+            if (!chain.call().isCanceled()) {
+                histogram.record(SystemClock.elapsedRealtime() - start);
+            }
+            throw e;
+        }
+    }
+
+    // Forgets every learned latency, so replay tests start each run on the configured timeouts
+    static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            histogram.clear();
+        }
+    }
+
+    public static void dump(PrintWriter writer) {
+        writer.println("Adaptive timeouts (ms):");
+        for (ApiEndpoint endpoint : ApiEndpoint.values()) {
+            LatencyHistogram histogram = HISTOGRAMS.get(endpoint);
+            long samples = histogram.sampleCount();
+            if (samples == 0) continue;
+            writer.println("  " + endpoint + ": p99=" + histogram.percentile(PERCENTILE)
+                    + " connect=" + connectTimeoutMs(endpoint)
+                    + " read=" + readTimeoutMs(endpoint)
+                    + " samples=" + samples);
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,212 @@
+package com.nayanpote.voxnayanai;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Races several NetworkHelper lookups for the same question. Sources are ranked by the order
+ * they are added; each may start immediately or after a hedge delay. The first useful answer
+ * wins unless a higher-ranked source is still running, in which case it gets a short
+ * precedence window to beat it. Sources that have not started when the race ends never start,
+ * and sources still running are cancelled. Use from the main thread.
+ */
+public final class AnswerRace {
+    private static final String TAG = "AnswerRace";
+
+    public interface Source {
+        RequestHandle start(NetworkHelper.NetworkCallback callback);
+    }
+
+    public interface Listener {
+        void onAnswer(String sourceName, String result);
+        void onNoAnswer();
+    }
+
+    private static final int PENDING = 0;
+    private static final int RUNNING = 1;
+    private static final int ANSWERED = 2;
+    private static final int FAILED = 3;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final long precedenceWindowMs;
+    private final List<String> names = new ArrayList<>();
+    private final List<Source> sources = new ArrayList<>();
+    private final List<Long> startDelaysMs = new ArrayList<>();
+
+    private int[] states;
+    private String[] answers;
+    private Runnable[] delayedStarts;
+    private RequestHandle[] running;
+    private Runnable windowTimeout;
+    private Listener listener;
+    private RequestHandle handle;
+    private long startedAt;
+    private boolean finished;
+
+    public AnswerRace(long precedenceWindowMs) {
+        this.precedenceWindowMs = precedenceWindowMs;
+    }
+
+    // Adds a source ranked below every source added before it
+    public AnswerRace add(String name, long startDelayMs, Source source) {
+        names.add(name);
+        startDelaysMs.add(startDelayMs);
+        sources.add(source);
+        return this;
+    }
+
+    // Cancelling the returned handle ends the race without notifying the listener; it completes when the race ends
+    public RequestHandle start(Listener listener) {
+        this.listener = listener;
+        int count = sources.size();
+        states = new int[count];
+        answers = new String[count];
+        delayedStarts = new Runnable[count];
+        running = new RequestHandle[count];
+        startedAt = SystemClock.elapsedRealtime();
+        RequestHandle handle = new RequestHandle();
+        this.handle = handle;
+
+        if (count == 0) {
+            finish(-1);
+            return handle;
+        }
+
+        for (int i = 0; i < count && !finished; i++) {
+            long delay = startDelaysMs.get(i);
+            if (delay <= 0) {
+                startSource(i);
+            } else {
+                int index = i;
+                delayedStarts[i] = () -> startSource(index);
+                handler.postDelayed(delayedStarts[i], delay);
+            }
+        }
+        if (!finished) {
+            handle.onCancel(() -> handler.post(this::abandon));
+        }
+        return handle;
+    }
+
+    private void abandon() {
+        if (finished) return;
+        this.listener = null;
+        finish(-1);
+    }
+
+    private void startSource(int index) {
+        if (finished || states[index] != PENDING) return;
+
+        if (delayedStarts[index] != null) {
+            handler.removeCallbacks(delayedStarts[index]);
+            delayedStarts[index] = null;
+        }
+        states[index] = RUNNING;
+        running[index] = sources.get(index).start(new NetworkHelper.NetworkCallback() {
+            @Override
+            public void onSuccess(String result) {
+                if (TextUtils.isEmpty(result)) {
+                    onSourceFailed(index);
+                } else {
+                    onSourceAnswered(index, result);
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                onSourceFailed(index);
+            }
+        });
+    }
+
+    private void onSourceAnswered(int index, String result) {
+        if (finished) return;
+        states[index] = ANSWERED;
+        answers[index] = result;
+        settle();
+    }
+
+    private void onSourceFailed(int index) {
+        if (finished) return;
+        states[index] = FAILED;
+        // A failure is the hedge trigger: bring every waiting source forward
+        for (int i = 0; i < states.length && !finished; i++) {
+            if (states[i] == PENDING) startSource(i);
+        }
+        settle();
+    }
+
+    private void settle() {
+        if (finished) return;
+
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] == ANSWERED) {
+                finish(i);
+                return;
+            }
+            if (states[i] != FAILED) {
+                // A better-ranked source is still out; give it the precedence window
+                if (hasAnswer() && windowTimeout == null) {
+                    windowTimeout = this::finishWithBestAnswer;
+                    handler.postDelayed(windowTimeout, precedenceWindowMs);
+                }
+                return;
+            }
+        }
+        finish(-1);
+    }
+
+    private boolean hasAnswer() {
+        for (int state : states) {
+            if (state == ANSWERED) return true;
+        }
+        return false;
+    }
+
+    private void finishWithBestAnswer() {
+        windowTimeout = null;
+        for (int i = 0; i < states.length; i++) {
+            if (states[i] == ANSWERED) {
+                finish(i);
+                return;
+            }
+        }
+    }
+
+    private void finish(int winner) {
+        finished = true;
+        if (windowTimeout != null) {
+            handler.removeCallbacks(windowTimeout);
+            windowTimeout = null;
+        }
+        for (int i = 0; i < delayedStarts.length; i++) {
+            if (delayedStarts[i] != null) {
+                handler.removeCallbacks(delayedStarts[i]);
+                delayedStarts[i] = null;
+            }
+            // Losers still out would only burn a connection
+            if (states[i] == RUNNING && running[i] != null) {
+                running[i].cancel();
+            }
+            running[i] = null;
+        }
+        handle.complete();
+
+        long elapsed = SystemClock.elapsedRealtime() - startedAt;
+        if (listener == null) {
+            Log.d(TAG, "Race cancelled after " + elapsed + "ms");
+        } else if (winner < 0) {
+            Log.d(TAG, "No source answered after " + elapsed + "ms");
+            listener.onNoAnswer();
+        } else {
+            Log.d(TAG, names.get(winner) + " won after " + elapsed + "ms");
+            listener.onAnswer(names.get(winner), answers[winner]);
+        }
+    }
+}
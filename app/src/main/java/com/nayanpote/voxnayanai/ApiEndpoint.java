@@ -0,0 +1,86 @@
+package com.nayanpote.voxnayanai;
+
+/**
+ * Every public API Vox talks to, with the timeouts used for calls to it.
+ */
+public enum ApiEndpoint {
+
+    // Free API endpoints
+    WIKIPEDIA("https://en.wikipedia.org/api/rest_v1/page/summary/", 4000, 5000, 8000, Ttl.DAY, 7 * Ttl.DAY),
+    REST_COUNTRIES("https://restcountries.com/v3.1/name/", 4000, 6000, 10000, 7 * Ttl.DAY, 30 * Ttl.DAY, 32 * Size.KB),
+    JOKES("https://official-joke-api.appspot.com/random_joke", 4000, 5000, 8000),
+    CAT_FACTS("https://catfact.ninja/fact", 4000, 5000, 8000),
+    NUMBERS("http://numbersapi.com/", 4000, 5000, 8000),
+    QUOTABLE("https://api.quotable.io/random", 4000, 5000, 8000),
+    PROGRAMMING_QUOTES("https://programming-quotes-api.herokuapp.com/quotes/random", 3000, 4000, 6000),
+    OPEN_TRIVIA("https://opentdb.com/api.php?amount=1&type=multiple", 4000, 5000, 8000),
+    DOG_FACTS("https://dog-api.kinduff.com/api/facts", 4000, 5000, 8000),
+    ADVICE("https://api.adviceslip.com/advice", 4000, 5000, 8000),
+    DICTIONARY("https://api.dictionaryapi.dev/api/v2/entries/en/", 4000, 5000, 8000, 7 * Ttl.DAY, 30 * Ttl.DAY),
+
+    // Additional free APIs
+    NEWS("https://api.currentsapi.services/v1/latest-news?apiKey=YOUR_API_KEY", 3000, 4000, 6000),
+    HACKER_NEWS("https://hacker-news.firebaseio.com/v0/topstories.json", 4000, 6000, 10000, 5 * Ttl.MINUTE, 30 * Ttl.MINUTE, Size.KB),
+    HACKER_NEWS_ITEM("https://hacker-news.firebaseio.com/v0/item/", 4000, 5000, 8000),
+    WEATHER("https://api.open-meteo.com/v1/forecast?latitude=52.52&longitude=13.41&current=temperature_2m,weathercode", 4000, 5000, 8000),
+    CRYPTO("https://api.coinbase.com/v2/prices/", 4000, 6000, 10000, 2 * Ttl.MINUTE, 10 * Ttl.MINUTE, Size.KB),
+    JOKE_NINJA("https://api.api-ninjas.com/v1/jokes", 4000, 5000, 8000),
+    FACTS("https://api.api-ninjas.com/v1/facts", 4000, 5000, 8000),
+    QUOTES_NINJA("https://api.api-ninjas.com/v1/quotes", 4000, 5000, 8000),
+    RIDDLES("https://riddles-api.vercel.app/random", 4000, 5000, 8000),
+    ACTIVITIES("https://www.boredapi.com/api/activity", 3000, 4000, 6000),
+    GENDER("https://api.genderize.io/?name=", 4000, 5000, 8000),
+    NATIONALITY("https://api.nationalize.io/?name=", 4000, 5000, 8000),
+    AGE("https://api.agify.io/?name=", 4000, 5000, 8000),
+    UNIVERSITIES("http://universities.hipolabs.com/search?name=", 4000, 8000, 12000, 7 * Ttl.DAY, 30 * Ttl.DAY),
+    GITHUB("https://api.github.com/users/", 4000, 5000, 8000, Ttl.HOUR, Ttl.DAY),
+    JSON_PLACEHOLDER("https://jsonplaceholder.typicode.com/posts/", 4000, 5000, 8000);
+
+    public final String url;
+    public final int connectTimeoutMs;
+    public final int readTimeoutMs;
+    // Upper bound for the whole call, including DNS, connect, redirects and reading the body
+    public final int callTimeoutMs;
+    // How long a cached response is served as-is; 0 means responses are never cached
+    public final long freshForMs;
+    // Past freshness, how long a cached response may still be served while it is revalidated
+    public final long staleForMs;
+    // Largest response body read from the network; larger ones fail instead of using up mobile data
+    public final int maxResponseBytes;
+
+    ApiEndpoint(String url, int connectTimeoutMs, int readTimeoutMs, int callTimeoutMs) {
+        this(url, connectTimeoutMs, readTimeoutMs, callTimeoutMs, 0, 0);
+    }
+
+    ApiEndpoint(String url, int connectTimeoutMs, int readTimeoutMs, int callTimeoutMs,
+                long freshForMs, long staleForMs) {
+        this(url, connectTimeoutMs, readTimeoutMs, callTimeoutMs, freshForMs, staleForMs, Size.DEFAULT_MAX_RESPONSE);
+    }
+
+    ApiEndpoint(String url, int connectTimeoutMs, int readTimeoutMs, int callTimeoutMs,
+                long freshForMs, long staleForMs, int maxResponseBytes) {
+        this.url = url;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.readTimeoutMs = readTimeoutMs;
+        this.callTimeoutMs = callTimeoutMs;
+        this.freshForMs = freshForMs;
+        this.staleForMs = staleForMs;
+        this.maxResponseBytes = maxResponseBytes;
+    }
+
+    public boolean isCacheable() {
+        return freshForMs > 0;
+    }
+
+    // Holder so the constants above can use these before the enum's own statics exist
+    private static final class Ttl {
+        static final long MINUTE = 60 * 1000L;
+        static final long HOUR = 60 * MINUTE;
+        static final long DAY = 24 * HOUR;
+    }
+
+    private static final class Size {
+        static final int KB = 1024;
+        static final int DEFAULT_MAX_RESPONSE = 64 * KB;
+    }
+}
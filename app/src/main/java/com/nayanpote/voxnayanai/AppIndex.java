@@ -0,0 +1,276 @@
+package com.nayanpote.voxnayanai;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.PackageManager;
+import android.content.pm.ResolveInfo;
+import android.net.Uri;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Index of launchable activities used by "open X". Built from PackageManager on the worker
+ * pool, persisted to app storage so a restart starts warm, and patched by package
+ * add/remove/replace broadcasts instead of being re-queried on every command.
+ * Lookups read an immutable snapshot through AppNameMatcher and are safe from any thread.
+ */
+public final class AppIndex {
+    private static final String TAG = "AppIndex";
+
+    private static final String INDEX_FILE = "app_index.tsv";
+    private static final String USAGE_PREFS = "vox_app_usage";
+    private static final double MAX_FREQUENCY_BOOST = 0.1;
+    private static final double MAX_RECENCY_BOOST = 0.1;
+    private static final long RECENCY_HALF_LIFE_MS = 3 * 24 * 60 * 60 * 1000L;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static volatile AppIndex instance;
+
+    public static final class App {
+        public final String label;
+        public final String packageName;
+        public final String activityName;
+        // Lowercased label with punctuation collapsed to single spaces
+        public final String normalizedLabel;
+        public final String[] tokens;
+
+        App(String label, String packageName, String activityName) {
+            this.label = label;
+            this.packageName = packageName;
+            this.activityName = activityName;
+            this.normalizedLabel = normalize(label);
+            this.tokens = normalizedLabel.isEmpty() ? new String[0] : normalizedLabel.split(" ");
+        }
+
+        public Intent launchIntent() {
+            Intent intent = new Intent(Intent.ACTION_MAIN);
+            intent.addCategory(Intent.CATEGORY_LAUNCHER);
+            intent.setClassName(packageName, activityName);
+            intent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+            return intent;
+        }
+    }
+
+    private final Context context;
+    private final File indexFile;
+    private volatile List<App> apps = Collections.emptyList();
+    private volatile AppNameMatcher matcher = new AppNameMatcher(Collections.emptyList());
+    // packageName -> {launch count, last launch time}
+    private final Map<String, long[]> usage = new ConcurrentHashMap<>();
+    private final AppNameMatcher.UsageBoost usageBoost = this::usageBoostFor;
+    private volatile boolean ready;
+
+    private final BroadcastReceiver packageReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            Uri data = intent.getData();
+            String packageName = data != null ? data.getSchemeSpecificPart() : null;
+            if (packageName == null) return;
+
+            boolean removed = Intent.ACTION_PACKAGE_REMOVED.equals(intent.getAction())
+                    && !intent.getBooleanExtra(Intent.EXTRA_REPLACING, false);
+            NetworkExecutor.getInstance().submit("AppIndex update " + packageName, () -> {
+                updatePackage(packageName, removed);
+                return null;
+            }, result -> { });
+        }
+    };
+
+    private AppIndex(Context context) {
+        this.context = context;
+        this.indexFile = new File(context.getFilesDir(), INDEX_FILE);
+    }
+
+    private void setApps(List<App> snapshot) {
+        apps = snapshot;
+        matcher = new AppNameMatcher(snapshot);
+    }
+
+    public static void init(Context context) {
+        if (instance == null) {
+            synchronized (AppIndex.class) {
+                if (instance == null) {
+                    instance = new AppIndex(context.getApplicationContext());
+                    instance.start();
+                }
+            }
+        }
+    }
+
+    // Null until init() has been called with a Context
+    public static AppIndex getInstance() {
+        return instance;
+    }
+
+    public static String normalize(String text) {
+        return NON_WORD.matcher(text.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private void start() {
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        filter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+        filter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        filter.addDataScheme("package");
+        context.registerReceiver(packageReceiver, filter);
+
+        NetworkExecutor.getInstance().submit("AppIndex build", () -> {
+            build();
+            return null;
+        }, result -> { });
+    }
+
+    private synchronized void build() {
+        List<App> persisted = readIndex();
+        loadUsage();
+        if (persisted != null) {
+            setApps(persisted);
+            ready = true;
+        }
+        // Installs and removals made while the app was not running are picked up here
+        List<App> current = queryLauncherApps(null);
+        setApps(Collections.unmodifiableList(current));
+        ready = true;
+        writeIndex(current);
+        Log.d(TAG, "Indexed " + current.size() + " launchable apps");
+    }
+
+    // False until the persisted or freshly built index is available
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<App> getApps() {
+        return apps;
+    }
+
+    // Best match for a spoken app name, or null when nothing is close enough
+    public App find(String appName) {
+        List<AppNameMatcher.Match> matches = matcher.topK(appName, 1, usageBoost);
+        return matches.isEmpty() ? null : matches.get(0).app;
+    }
+
+    public List<AppNameMatcher.Match> findTop(String appName, int k) {
+        return matcher.topK(appName, k, usageBoost);
+    }
+
+    // Feeds the recency and frequency boost used when ranking matches
+    public void recordLaunch(App app) {
+        long now = System.currentTimeMillis();
+        long[] stats = usage.get(app.packageName);
+        long count = stats != null ? stats[0] + 1 : 1;
+        usage.put(app.packageName, new long[]{count, now});
+        context.getSharedPreferences(USAGE_PREFS, Context.MODE_PRIVATE).edit()
+                .putString(app.packageName, count + ":" + now)
+                .apply();
+    }
+
+    private double usageBoostFor(String packageName) {
+        long[] stats = usage.get(packageName);
+        if (stats == null) return 0;
+        // Saturates around 20 launches
+        double frequency = MAX_FREQUENCY_BOOST * Math.min(1.0, Math.log1p(stats[0]) / Math.log1p(20));
+        double age = System.currentTimeMillis() - stats[1];
+        double recency = MAX_RECENCY_BOOST * Math.pow(0.5, age / RECENCY_HALF_LIFE_MS);
+        return frequency + recency;
+    }
+
+    private void loadUsage() {
+        Map<String, ?> stored = context.getSharedPreferences(USAGE_PREFS, Context.MODE_PRIVATE).getAll();
+        for (Map.Entry<String, ?> entry : stored.entrySet()) {
+            String[] parts = String.valueOf(entry.getValue()).split(":");
+            if (parts.length != 2) continue;
+            try {
+                usage.put(entry.getKey(), new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])});
+            } catch (NumberFormatException e) {
+                // Skip entries written by an older format
+            }
+        }
+    }
+
+    private synchronized void updatePackage(String packageName, boolean removed) {
+        List<App> updated = new ArrayList<>(apps.size() + 1);
+        for (App app : apps) {
+            if (!app.packageName.equals(packageName)) updated.add(app);
+        }
+        if (!removed) {
+            updated.addAll(queryLauncherApps(packageName));
+        }
+        setApps(Collections.unmodifiableList(updated));
+        writeIndex(updated);
+    }
+
+    // Launcher activities of one package, or of every package when packageName is null
+    private List<App> queryLauncherApps(String packageName) {
+        PackageManager pm = context.getPackageManager();
+        Intent launcher = new Intent(Intent.ACTION_MAIN);
+        launcher.addCategory(Intent.CATEGORY_LAUNCHER);
+        if (packageName != null) {
+            launcher.setPackage(packageName);
+        }
+
+        List<App> result = new ArrayList<>();
+        for (ResolveInfo info : pm.queryIntentActivities(launcher, 0)) {
+            CharSequence label = info.loadLabel(pm);
+            if (label == null || info.activityInfo == null) continue;
+            result.add(new App(label.toString(), info.activityInfo.packageName, info.activityInfo.name));
+        }
+        return result;
+    }
+
+    private List<App> readIndex() {
+        if (!indexFile.exists()) return null;
+
+        List<App> result = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(indexFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t");
+                if (fields.length == 3) {
+                    result.add(new App(fields[0], fields[1], fields[2]));
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read app index", e);
+            return null;
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private synchronized void writeIndex(List<App> snapshot) {
+        File temp = new File(indexFile.getPath() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(temp))) {
+            for (App app : snapshot) {
+                writer.write(app.label.replace('\t', ' ').replace('\n', ' '));
+                writer.write('\t');
+                writer.write(app.packageName);
+                writer.write('\t');
+                writer.write(app.activityName);
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write app index", e);
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(indexFile)) {
+            temp.delete();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.nayanpote.voxnayanai;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fuzzy matcher over app labels, built once per AppIndex snapshot. Each label is indexed by
+ * its character trigrams and by a Soundex key per word, so misheard names ("watsap",
+ * "you tube") still land. Scores combine trigram overlap and phonetic agreement, but a label
+ * must share some spelling with the query to be plausible at all; a usage boost then favours
+ * recently and frequently launched apps among the plausible matches.
+ */
+public final class AppNameMatcher {
+
+    // Candidates below this similarity are never returned, however often they are used
+    private static final double MIN_SCORE = 0.3;
+    // Soundex collides across unrelated names ("clock" and "clash"), so agreement on sound alone never matches
+    private static final double MIN_DICE = 0.2;
+    private static final double TRIGRAM_WEIGHT = 0.7;
+    private static final double PHONETIC_WEIGHT = 0.3;
+    private static final double EXACT_BONUS = 0.3;
+    private static final double PREFIX_BONUS = 0.1;
+
+    // Soundex digit for each letter a-z; '0' letters are dropped
+    private static final String SOUNDEX_CODES = "01230120022455012623010202";
+
+    public interface UsageBoost {
+        // Small non-negative bonus for a package, e.g. from launch count and recency
+        double boostFor(String packageName);
+    }
+
+    public static final class Match {
+        public final AppIndex.App app;
+        public final double score;
+
+        Match(AppIndex.App app, double score) {
+            this.app = app;
+            this.score = score;
+        }
+    }
+
+    private final List<AppIndex.App> apps;
+    private final int[] gramCounts;
+    private final Map<String, int[]> gramIndex;
+    private final Map<String, int[]> phoneticIndex;
+
+    public AppNameMatcher(List<AppIndex.App> apps) {
+        this.apps = apps;
+        this.gramCounts = new int[apps.size()];
+
+        Map<String, List<Integer>> grams = new HashMap<>();
+        Map<String, List<Integer>> phonetics = new HashMap<>();
+        for (int id = 0; id < apps.size(); id++) {
+            AppIndex.App app = apps.get(id);
+            Set<String> appGrams = trigrams(app.normalizedLabel);
+            gramCounts[id] = appGrams.size();
+            for (String gram : appGrams) {
+                grams.computeIfAbsent(gram, g -> new ArrayList<>()).add(id);
+            }
+            for (String key : new HashSet<>(Arrays.asList(phoneticKeys(app.tokens)))) {
+                phonetics.computeIfAbsent(key, k -> new ArrayList<>()).add(id);
+            }
+        }
+        this.gramIndex = toArrays(grams);
+        this.phoneticIndex = toArrays(phonetics);
+    }
+
+    /**
+     * Up to k apps ranked best first. The spoken name is normalized the same way as labels.
+     */
+    public List<Match> topK(String spokenName, int k, UsageBoost boost) {
+        String query = AppIndex.normalize(spokenName);
+        if (query.isEmpty() || apps.isEmpty()) return Collections.emptyList();
+
+        Set<String> queryGrams = trigrams(query);
+        int[] shared = new int[apps.size()];
+        for (String gram : queryGrams) {
+            int[] ids = gramIndex.get(gram);
+            if (ids == null) continue;
+            for (int id : ids) shared[id]++;
+        }
+
+        String[] queryKeys = phoneticKeys(query.split(" "));
+        int[] phoneticHits = new int[apps.size()];
+        for (String key : queryKeys) {
+            int[] ids = phoneticIndex.get(key);
+            if (ids == null) continue;
+            for (int id : ids) phoneticHits[id]++;
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (int id = 0; id < apps.size(); id++) {
+            if (shared[id] == 0) continue;
+            double dice = 2.0 * shared[id] / (queryGrams.size() + gramCounts[id]);
+            if (dice < MIN_DICE) continue;
+
+            AppIndex.App app = apps.get(id);
+            double phonetic = Math.min(1.0, (double) phoneticHits[id] / queryKeys.length);
+            double score = TRIGRAM_WEIGHT * dice + PHONETIC_WEIGHT * phonetic;
+            if (app.normalizedLabel.equals(query)) {
+                score += EXACT_BONUS;
+            } else if (app.normalizedLabel.startsWith(query)) {
+                score += PREFIX_BONUS;
+            }
+            if (score < MIN_SCORE) continue;
+
+            if (boost != null) {
+                score += boost.boostFor(app.packageName);
+            }
+            matches.add(new Match(app, score));
+        }
+
+        matches.sort((a, b) -> Double.compare(b.score, a.score));
+        return matches.size() > k ? new ArrayList<>(matches.subList(0, k)) : matches;
+    }
+
+    // Distinct trigrams of the label padded with a space on each side
+    private static Set<String> trigrams(String text) {
+        String padded = " " + text + " ";
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private static String[] phoneticKeys(String[] tokens) {
+        String[] keys = new String[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            keys[i] = soundex(tokens[i]);
+        }
+        return keys;
+    }
+
+    static String soundex(String word) {
+        if (word.isEmpty()) return word;
+        char first = word.charAt(0);
+        if (first < 'a' || first > 'z') return word;
+
+        StringBuilder key = new StringBuilder(4).append(Character.toUpperCase(first));
+        char previous = SOUNDEX_CODES.charAt(first - 'a');
+        for (int i = 1; i < word.length() && key.length() < 4; i++) {
+            char c = word.charAt(i);
+            if (c < 'a' || c > 'z') continue;
+            char code = SOUNDEX_CODES.charAt(c - 'a');
+            if (code != '0' && code != previous) {
+                key.append(code);
+            }
+            // 'h' and 'w' do not separate letters with the same code
+            if (c != 'h' && c != 'w') {
+                previous = code;
+            }
+        }
+        while (key.length() < 4) key.append('0');
+        return key.toString();
+    }
+
+    private static Map<String, int[]> toArrays(Map<String, List<Integer>> lists) {
+        Map<String, int[]> arrays = new HashMap<>(lists.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : lists.entrySet()) {
+            List<Integer> ids = entry.getValue();
+            int[] array = new int[ids.size()];
+            for (int i = 0; i < array.length; i++) array[i] = ids.get(i);
+            arrays.put(entry.getKey(), array);
+        }
+        return arrays;
+    }
+}
@@ -0,0 +1,272 @@
+package com.nayanpote.voxnayanai;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+/**
+ * One circuit breaker per ApiEndpoint, so an API that is down or crawling costs one failed
+ * call per cool-down instead of a timeout per request.
+ *
+ * A closed breaker watches the last WINDOW_SIZE calls; once at least half of them failed or
+ * took longer than half the endpoint's call timeout, it opens. An open breaker rejects calls
+ * without touching the network until its cool-down ends, then lets a single probe through
+ * (half-open). A good probe closes it; a bad one reopens it with twice the cool-down, so dead
+ * APIs end up being tried every half hour. Only server errors (5xx, 429) and I/O failures
+ * count against an endpoint, and failures while the device is offline are ignored; a 404 for
+ * an unknown word means the API is working.
+ *
+ * Open breakers are persisted, so a restarted service does not rediscover a dead API the slow
+ * way.
+ */
+public final class CircuitBreakers {
+    private static final String TAG = "CircuitBreakers";
+    private static final String PREFS = "circuit_breakers";
+
+    private static final int WINDOW_SIZE = 10;
+    // Too few calls say nothing about an endpoint
+    private static final int MIN_CALLS = 4;
+    private static final double FAILURE_RATE_THRESHOLD = 0.5;
+    private static final long BASE_OPEN_MS = 30 * 1000L;
+    private static final long MAX_OPEN_MS = 30 * 60 * 1000L;
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static volatile CircuitBreakers instance;
+
+    private final SharedPreferences preferences;
+    private final Map<ApiEndpoint, Breaker> breakers = new EnumMap<>(ApiEndpoint.class);
+    private final AtomicLong rejectedCalls = new AtomicLong();
+    private final AtomicLong trips = new AtomicLong();
+
+    private final class Breaker {
+        final ApiEndpoint endpoint;
+        // Ring of recent outcomes; true is a failure or a slow call
+        final boolean[] failures = new boolean[WINDOW_SIZE];
+        int calls;
+        int next;
+        State state = State.CLOSED;
+        // Wall clock, since it is persisted across restarts
+        long openedAt;
+        long openMs = BASE_OPEN_MS;
+
+        Breaker(ApiEndpoint endpoint) {
+            this.endpoint = endpoint;
+        }
+
+        synchronized boolean isRejecting() {
+            return state == State.HALF_OPEN
+                    || state == State.OPEN && System.currentTimeMillis() - openedAt < openMs;
+        }
+
+        synchronized boolean tryAcquire() {
+            if (state == State.CLOSED) return true;
+            if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMs) {
+                // Let one probe through; everyone else keeps failing fast until it reports
+                state = State.HALF_OPEN;
+                return true;
+            }
+            return false;
+        }
+
+        // A probe that never completed; the next call probes again
+        synchronized void release() {
+            if (state == State.HALF_OPEN) {
+                state = State.OPEN;
+            }
+        }
+
+        synchronized void record(boolean failed) {
+            if (state == State.HALF_OPEN) {
+                if (failed) {
+                    open(Math.min(openMs * 2, MAX_OPEN_MS));
+                } else {
+                    close();
+                }
+                return;
+            }
+            if (state != State.CLOSED) return;
+
+            failures[next] = failed;
+            next = (next + 1) % WINDOW_SIZE;
+            calls = Math.min(calls + 1, WINDOW_SIZE);
+            if (calls >= MIN_CALLS && failureCount() >= FAILURE_RATE_THRESHOLD * calls) {
+                open(BASE_OPEN_MS);
+            }
+        }
+
+        private int failureCount() {
+            int count = 0;
+            for (int i = 0; i < calls; i++) {
+                if (failures[i]) count++;
+            }
+            return count;
+        }
+
+        private void open(long duration) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+            openMs = duration;
+            trips.incrementAndGet();
+            Log.w(TAG, endpoint + " circuit open for " + duration / 1000 + " s");
+            save(this);
+        }
+
+        synchronized void reset() {
+            state = State.CLOSED;
+            openMs = BASE_OPEN_MS;
+            calls = 0;
+            next = 0;
+        }
+
+        private void close() {
+            state = State.CLOSED;
+            openMs = BASE_OPEN_MS;
+            calls = 0;
+            next = 0;
+            Log.d(TAG, endpoint + " circuit closed");
+            save(this);
+        }
+
+        @Override
+        public synchronized String toString() {
+            if (state == State.CLOSED) {
+                return endpoint + ": closed, " + failureCount() + "/" + calls + " recent failures";
+            }
+            long remaining = Math.max(0, openMs - (System.currentTimeMillis() - openedAt));
+            return endpoint + ": " + state.name().toLowerCase() + ", retry in " + remaining / 1000 + " s";
+        }
+    }
+
+    private CircuitBreakers(Context context) {
+        preferences = context.getSharedPreferences(PREFS, Context.MODE_PRIVATE);
+        for (ApiEndpoint endpoint : ApiEndpoint.values()) {
+            breakers.put(endpoint, load(endpoint));
+        }
+    }
+
+    public static void init(Context context) {
+        if (instance == null) {
+            synchronized (CircuitBreakers.class) {
+                if (instance == null) {
+                    instance = new CircuitBreakers(context.getApplicationContext());
+                }
+            }
+        }
+    }
+
+    // Null until init() has been called with a Context
+    public static CircuitBreakers getInstance() {
+        return instance;
+    }
+
+    /**
+     * True while calls to the endpoint would be rejected, so callers can answer from their
+     * fallback without scheduling any work. Does not use up the half-open probe.
+     */
+    public boolean isOpen(ApiEndpoint endpoint) {
+        return breakers.get(endpoint).isRejecting();
+    }
+
+    /**
+     * Runs a call to the endpoint through its breaker, from the endpoint client's interceptor.
+     * Rejected calls fail with an IOException before a connection is made; completed ones are
+     * recorded, with the time to response headers as their latency.
+     */
+    Response intercept(ApiEndpoint endpoint, Interceptor.Chain chain) throws IOException {
+        Breaker breaker = breakers.get(endpoint);
+        if (!breaker.tryAcquire()) {
+            rejectedCalls.incrementAndGet();
+            throw new IOException(endpoint + " circuit open");
+        }
+        long start = SystemClock.elapsedRealtime();
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException e) {
+            if (chain.call().isCanceled() || !ConnectivityMonitor.current().hasInternet()) {
+                // Abandoned by the caller, or the device lost its network; neither says anything
+                // about the endpoint, but the probe is freed
+                breaker.release();
+            } else {
+                breaker.record(true);
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            // A bug in an interceptor or listener, not an endpoint failure; a held probe would
+            // otherwise keep the breaker half-open for the rest of the process
+            breaker.release();
+            throw e;
+        }
+        int code = response.code();
+        boolean serverError = code >= 500 || code == 429;
+        breaker.record(serverError || SystemClock.elapsedRealtime() - start > endpoint.callTimeoutMs / 2);
+        return response;
+    }
+
+    // Closes every breaker and forgets the persisted ones, so replay tests start each run cold
+    void reset() {
+        for (Breaker breaker : breakers.values()) {
+            breaker.reset();
+        }
+        preferences.edit().clear().apply();
+        rejectedCalls.set(0);
+        trips.set(0);
+    }
+
+    // Calls refused without going to the network because their endpoint's circuit was open
+    public long getRejectedCallCount() {
+        return rejectedCalls.get();
+    }
+
+    public long getTripCount() {
+        return trips.get();
+    }
+
+    private Breaker load(ApiEndpoint endpoint) {
+        Breaker breaker = new Breaker(endpoint);
+        String stored = preferences.getString(endpoint.name(), null);
+        if (stored == null) return breaker;
+        String[] parts = stored.split(":");
+        if (parts.length != 2) return breaker;
+        try {
+            // A breaker saved half-open lost its probe with the process; it is due for another
+            breaker.state = State.OPEN;
+            breaker.openedAt = Long.parseLong(parts[0]);
+            breaker.openMs = Long.parseLong(parts[1]);
+        } catch (NumberFormatException e) {
+            breaker.state = State.CLOSED;
+        }
+        return breaker;
+    }
+
+    private void save(Breaker breaker) {
+        SharedPreferences.Editor editor = preferences.edit();
+        if (breaker.state == State.CLOSED) {
+            editor.remove(breaker.endpoint.name());
+        } else {
+            editor.putString(breaker.endpoint.name(), breaker.openedAt + ":" + breaker.openMs);
+        }
+        editor.apply();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("Circuit breakers (")
+                .append(trips.get()).append(" trips, ")
+                .append(rejectedCalls.get()).append(" rejected calls):");
+        for (Breaker breaker : breakers.values()) {
+            result.append("\n  ").append(breaker);
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,117 @@
+package com.nayanpote.voxnayanai;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A pluggable command handler. It claims a set of intents (whose trigger phrases live on
+ * VoxIntent) and is tried before lower-priority handlers for the same intent. Usage and
+ * latency counters are kept per handler by CommandRegistry.
+ */
+public abstract class CommandHandler {
+
+    public static final int DEFAULT_PRIORITY = 0;
+
+    private final String name;
+    private final Set<VoxIntent> intents;
+    private volatile int priority;
+    final Stats stats = new Stats();
+
+    protected CommandHandler(String name, int priority, VoxIntent first, VoxIntent... rest) {
+        this.name = name;
+        this.priority = priority;
+        this.intents = Collections.unmodifiableSet(EnumSet.of(first, rest));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Set<VoxIntent> getIntents() {
+        return intents;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public Stats getStats() {
+        return stats;
+    }
+
+    // Whether answering this intent needs the network; defaults to the intent's own flag
+    public boolean requiresNetwork(VoxIntent intent) {
+        return intent.requiresNetwork();
+    }
+
+    /**
+     * Answers the command through the callback and returns true, or returns false without
+     * calling back to let the next candidate try. Called on the thread that received the command.
+     */
+    public abstract boolean handle(VoxIntent intent, Utterance utterance, int triggerEnd,
+                                   VoxAIProcessor.AIResponseCallback callback);
+
+    void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Lock-free counters: how often the handler was offered a command, accepted or declined
+     * it, the time spent deciding, and the time until it called back.
+     */
+    public static final class Stats {
+        final AtomicLong offered = new AtomicLong();
+        final AtomicLong handled = new AtomicLong();
+        final AtomicLong declined = new AtomicLong();
+        final AtomicLong decisionNanos = new AtomicLong();
+        final AtomicLong callbacks = new AtomicLong();
+        final AtomicLong callbackNanos = new AtomicLong();
+        final AtomicLong maxCallbackNanos = new AtomicLong();
+
+        void recordCallback(long nanos) {
+            callbacks.incrementAndGet();
+            callbackNanos.addAndGet(nanos);
+            long max = maxCallbackNanos.get();
+            while (nanos > max && !maxCallbackNanos.compareAndSet(max, nanos)) {
+                max = maxCallbackNanos.get();
+            }
+        }
+
+        public long getOfferedCount() {
+            return offered.get();
+        }
+
+        public long getHandledCount() {
+            return handled.get();
+        }
+
+        public long getDeclinedCount() {
+            return declined.get();
+        }
+
+        public double getAverageDecisionMs() {
+            long count = offered.get();
+            return count == 0 ? 0 : decisionNanos.get() / 1e6 / count;
+        }
+
+        public double getAverageCallbackMs() {
+            long count = callbacks.get();
+            return count == 0 ? 0 : callbackNanos.get() / 1e6 / count;
+        }
+
+        public double getMaxCallbackMs() {
+            return maxCallbackNanos.get() / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "offered=%d, handled=%d, declined=%d, avgDecisionMs=%.2f, avgCallbackMs=%.1f, maxCallbackMs=%.1f",
+                    getOfferedCount(), getHandledCount(), getDeclinedCount(),
+                    getAverageDecisionMs(), getAverageCallbackMs(), getMaxCallbackMs());
+        }
+    }
+}
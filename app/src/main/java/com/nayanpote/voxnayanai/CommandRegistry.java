@@ -0,0 +1,127 @@
+package com.nayanpote.voxnayanai;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Routes classified intents to registered CommandHandlers, highest priority first, and
+ * records per-handler counters. Lookups read an immutable routing table, so dispatch takes
+ * no locks; registration and reordering rebuild the table.
+ */
+public final class CommandRegistry {
+    private static final String TAG = "CommandRegistry";
+
+    private final List<CommandHandler> handlers = new ArrayList<>();
+    private volatile Map<VoxIntent, List<CommandHandler>> routes = new EnumMap<>(VoxIntent.class);
+
+    public synchronized void register(CommandHandler handler) {
+        handlers.add(handler);
+        rebuildRoutes();
+    }
+
+    // Moves a handler ahead of (higher) or behind (lower) others claiming the same intents
+    public synchronized void setPriority(CommandHandler handler, int priority) {
+        handler.setPriority(priority);
+        rebuildRoutes();
+    }
+
+    public List<CommandHandler> handlersFor(VoxIntent intent) {
+        List<CommandHandler> list = routes.get(intent);
+        return list != null ? list : Collections.emptyList();
+    }
+
+    public synchronized List<CommandHandler> getHandlers() {
+        return new ArrayList<>(handlers);
+    }
+
+    /**
+     * Offers the command to one handler, timing the decision and the first callback.
+     * Returns whether the handler accepted it.
+     */
+    public boolean dispatch(CommandHandler handler, VoxIntent intent, Utterance utterance, int triggerEnd,
+                            VoxAIProcessor.AIResponseCallback callback) {
+        CommandHandler.Stats stats = handler.stats;
+        long start = System.nanoTime();
+        stats.offered.incrementAndGet();
+
+        boolean accepted = handler.handle(intent, utterance, triggerEnd, new TimedCallback(stats, start, callback));
+        stats.decisionNanos.addAndGet(System.nanoTime() - start);
+        if (accepted) {
+            stats.handled.incrementAndGet();
+        } else {
+            stats.declined.incrementAndGet();
+        }
+        return accepted;
+    }
+
+    public void logStats() {
+        for (CommandHandler handler : getHandlers()) {
+            Log.i(TAG, handler.getName() + " (priority " + handler.getPriority() + "): " + handler.stats);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("CommandRegistry{");
+        for (CommandHandler handler : getHandlers()) {
+            result.append("\n  ").append(handler.getName())
+                    .append(" (priority ").append(handler.getPriority()).append("): ")
+                    .append(handler.stats);
+        }
+        return result.append("\n}").toString();
+    }
+
+    private void rebuildRoutes() {
+        Map<VoxIntent, List<CommandHandler>> table = new EnumMap<>(VoxIntent.class);
+        for (CommandHandler handler : handlers) {
+            for (VoxIntent intent : handler.getIntents()) {
+                table.computeIfAbsent(intent, i -> new ArrayList<>()).add(handler);
+            }
+        }
+        for (Map.Entry<VoxIntent, List<CommandHandler>> entry : table.entrySet()) {
+            List<CommandHandler> list = entry.getValue();
+            // Stable sort keeps registration order among equal priorities
+            list.sort((a, b) -> Integer.compare(b.getPriority(), a.getPriority()));
+            entry.setValue(Collections.unmodifiableList(list));
+        }
+        routes = table;
+    }
+
+    // Records the time to the first answer or error, then forwards it
+    private static final class TimedCallback implements VoxAIProcessor.AIResponseCallback {
+        private final CommandHandler.Stats stats;
+        private final long start;
+        private final VoxAIProcessor.AIResponseCallback delegate;
+        private final AtomicBoolean recorded = new AtomicBoolean();
+
+        TimedCallback(CommandHandler.Stats stats, long start, VoxAIProcessor.AIResponseCallback delegate) {
+            this.stats = stats;
+            this.start = start;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onResponse(String response) {
+            record();
+            delegate.onResponse(response);
+        }
+
+        @Override
+        public void onError(String error) {
+            record();
+            delegate.onError(error);
+        }
+
+        private void record() {
+            if (recorded.compareAndSet(false, true)) {
+                stats.recordCallback(System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.nayanpote.voxnayanai;
+
+import android.content.Context;
+import android.net.ConnectivityManager;
+import android.net.Network;
+import android.net.NetworkCapabilities;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Process-wide view of the default network, fed by ConnectivityManager.NetworkCallback.
+ * Each change publishes a new immutable Snapshot, so readers on any thread get a consistent
+ * picture from one volatile read instead of querying ConnectivityManager per command.
+ */
+public final class ConnectivityMonitor {
+    private static final String TAG = "ConnectivityMonitor";
+
+    // Below this estimated downstream bandwidth the link is treated as slow
+    private static final int SLOW_LINK_KBPS = 1000;
+
+    public enum Transport { NONE, WIFI, CELLULAR, ETHERNET, VPN, OTHER }
+
+    public static final class Snapshot {
+        public final Transport transport;
+        public final boolean validated;
+        // Signed-in networks answer every request with a login page until the user signs in
+        public final boolean captivePortal;
+        public final boolean metered;
+        // Platform estimate; 0 when unknown
+        public final int downstreamKbps;
+        public final long timestamp;
+
+        Snapshot(Transport transport, boolean validated, boolean captivePortal, boolean metered, int downstreamKbps) {
+            this.transport = transport;
+            this.validated = validated;
+            this.captivePortal = captivePortal;
+            this.metered = metered;
+            this.downstreamKbps = downstreamKbps;
+            this.timestamp = System.currentTimeMillis();
+        }
+
+        public boolean isConnected() {
+            return transport != Transport.NONE;
+        }
+
+        /**
+         * Connected to a network that may reach the internet. Networks the platform has not
+         * validated still count, since validation fails behind blocked probe endpoints, some
+         * VPNs and enterprise Wi-Fi; a link that is really dead trips the circuit breakers.
+         * Only a captive portal, which would answer with its login page, counts as offline.
+         */
+        public boolean hasInternet() {
+            return isConnected() && !captivePortal;
+        }
+
+        public boolean isSlow() {
+            return downstreamKbps > 0 && downstreamKbps < SLOW_LINK_KBPS;
+        }
+
+        // Metered or slow links should avoid optional traffic
+        public boolean shouldSaveData() {
+            return metered || isSlow();
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{transport=" + transport + ", validated=" + validated
+                    + ", captivePortal=" + captivePortal + ", metered=" + metered
+                    + ", downstreamKbps=" + downstreamKbps + "}";
+        }
+    }
+
+    public interface Listener {
+        // Called on the main thread
+        void onConnectivityChanged(Snapshot snapshot);
+    }
+
+    private static final Snapshot DISCONNECTED = new Snapshot(Transport.NONE, false, false, false, 0);
+
+    private static volatile ConnectivityMonitor instance;
+    // Set by replay tests; null means the platform's view of the network is used
+    private static volatile Snapshot snapshotOverride;
+
+    private final ConnectivityManager connectivityManager;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Snapshot snapshot = DISCONNECTED;
+
+    private final ConnectivityManager.NetworkCallback networkCallback = new ConnectivityManager.NetworkCallback() {
+        @Override
+        public void onAvailable(Network network) {
+            publish(snapshotOf(connectivityManager.getNetworkCapabilities(network)));
+        }
+
+        @Override
+        public void onCapabilitiesChanged(Network network, NetworkCapabilities capabilities) {
+            publish(snapshotOf(capabilities));
+        }
+
+        @Override
+        public void onLost(Network network) {
+            publish(DISCONNECTED);
+        }
+    };
+
+    private ConnectivityMonitor(Context context) {
+        connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+    }
+
+    public static void init(Context context) {
+        if (instance == null) {
+            synchronized (ConnectivityMonitor.class) {
+                if (instance == null) {
+                    ConnectivityMonitor monitor = new ConnectivityMonitor(context.getApplicationContext());
+                    monitor.start();
+                    instance = monitor;
+                }
+            }
+        }
+    }
+
+    public static ConnectivityMonitor getInstance() {
+        return instance;
+    }
+
+    // Current snapshot, or "disconnected" when the monitor has not been initialised
+    public static Snapshot current() {
+        Snapshot override = snapshotOverride;
+        if (override != null) return override;
+        ConnectivityMonitor monitor = instance;
+        return monitor != null ? monitor.snapshot : DISCONNECTED;
+    }
+
+    /**
+     * Makes current() report the given network instead of the device's, for replaying recorded
+     * responses in tests where the device itself may be offline. Listeners are not notified.
+     * Pass null to go back to the platform's view.
+     */
+    public static void setSnapshotOverride(Snapshot snapshot) {
+        snapshotOverride = snapshot;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void start() {
+        if (connectivityManager == null) return;
+
+        // Seed synchronously so the first reader does not see a false "offline"
+        Network active = connectivityManager.getActiveNetwork();
+        if (active != null) {
+            snapshot = snapshotOf(connectivityManager.getNetworkCapabilities(active));
+        }
+        try {
+            connectivityManager.registerDefaultNetworkCallback(networkCallback);
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Failed to register network callback", e);
+        }
+    }
+
+    private void publish(Snapshot next) {
+        Snapshot previous = snapshot;
+        snapshot = next;
+        if (previous.transport == next.transport && previous.validated == next.validated
+                && previous.captivePortal == next.captivePortal && previous.metered == next.metered && previous.isSlow() == next.isSlow()) {
+            return;
+        }
+        Log.d(TAG, "Network changed: " + next);
+        mainHandler.post(() -> {
+            for (Listener listener : listeners) {
+                listener.onConnectivityChanged(next);
+            }
+        });
+    }
+
+    private static Snapshot snapshotOf(NetworkCapabilities capabilities) {
+        if (capabilities == null) return DISCONNECTED;
+
+        Transport transport;
+        if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_WIFI)) {
+            transport = Transport.WIFI;
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_CELLULAR)) {
+            transport = Transport.CELLULAR;
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_ETHERNET)) {
+            transport = Transport.ETHERNET;
+        } else if (capabilities.hasTransport(NetworkCapabilities.TRANSPORT_VPN)) {
+            transport = Transport.VPN;
+        } else {
+            transport = Transport.OTHER;
+        }
+        return new Snapshot(transport,
+                capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_VALIDATED),
+                capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_CAPTIVE_PORTAL),
+                !capabilities.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED),
+                capabilities.getLinkDownstreamBandwidthKbps());
+    }
+}
@@ -0,0 +1,305 @@
+package com.nayanpote.voxnayanai;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import okhttp3.Call;
+
+/**
+ * Keeps a snapshot of the top Hacker News stories so "latest news" is answered locally.
+ * A refresh reads the top story IDs, then fetches the item documents in parallel with
+ * bounded concurrency. The snapshot is persisted through ResponseCache and refreshed
+ * periodically while the background service runs. Call the public methods on the main thread.
+ */
+public final class HackerNewsFeed {
+    private static final String TAG = "HackerNewsFeed";
+
+    private static final int STORY_COUNT = 5;
+    private static final int MAX_CONCURRENT_ITEMS = 3;
+    // Budget for all item fetches of one refresh; stories still missing are left out
+    private static final long ITEMS_DEADLINE_MS = 6000;
+    private static final long REFRESH_INTERVAL_MS = 15 * 60 * 1000L;
+
+    private static final JsonFieldExtractor TOP_STORY_FIELDS = new JsonFieldExtractor(storyIndexes());
+    private static final JsonFieldExtractor ITEM_FIELDS = new JsonFieldExtractor("title", "score");
+    private static final String CACHE_KEY = ResponseCache.keyFor(ApiEndpoint.HACKER_NEWS, "");
+    // Firebase returns just the first STORY_COUNT entries of the ~500 ID list
+    private static final String TOP_STORIES_URL = ApiEndpoint.HACKER_NEWS.url
+            + "?orderBy=%22%24key%22&limitToFirst=" + STORY_COUNT;
+
+    private static HackerNewsFeed instance;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<NetworkHelper.NetworkCallback> waiting = new ArrayList<>();
+    private final Runnable periodicRefresh = new Runnable() {
+        @Override
+        public void run() {
+            // Background refreshes are optional traffic; on-demand requests still refresh
+            ConnectivityMonitor.Snapshot network = ConnectivityMonitor.current();
+            if (network.hasInternet() && !network.shouldSaveData()) {
+                refresh();
+            }
+            mainHandler.postDelayed(this, REFRESH_INTERVAL_MS);
+        }
+    };
+
+    private volatile ResponseCache.Entry snapshot;
+    private boolean refreshing;
+    private boolean periodic;
+
+    private HackerNewsFeed() {
+        // A snapshot persisted by an earlier run can answer offline before any refresh
+        ResponseCache cache = ResponseCache.getInstance();
+        if (cache != null) {
+            NetworkExecutor.getInstance().submit("HackerNewsFeed restore",
+                    () -> cache.getFromDisk(ApiEndpoint.HACKER_NEWS, CACHE_KEY), stored -> {
+                        if (snapshot == null && stored != null) {
+                            snapshot = stored;
+                        }
+                    });
+        }
+    }
+
+    public static HackerNewsFeed getInstance() {
+        if (instance == null) {
+            instance = new HackerNewsFeed();
+        }
+        return instance;
+    }
+
+    /**
+     * Answers from the snapshot when it is usable, refreshing it in the background if it is
+     * stale. Without a usable snapshot the callback waits for the next refresh; cancelling
+     * the handle only stops the wait, since the refresh is shared.
+     */
+    public RequestHandle getTopStories(NetworkHelper.NetworkCallback callback) {
+        ResponseCache.Entry current = snapshot;
+        if (current != null && current.isUsable()) {
+            if (!current.isFresh()) {
+                refresh();
+            }
+            callback.onSuccess(current.value);
+            return RequestHandle.completed();
+        }
+
+        waiting.add(callback);
+        refresh();
+        RequestHandle handle = new RequestHandle();
+        handle.onCancel(() -> mainHandler.post(() -> waiting.remove(callback)));
+        return handle;
+    }
+
+    /**
+     * The last snapshot however old, for answering without a network. A stale one says when
+     * it was fetched. Null when there is no snapshot.
+     */
+    public String getOfflineStories() {
+        ResponseCache.Entry current = snapshot;
+        if (current == null) return null;
+        if (current.isFresh()) return current.value;
+        return current.value + "Last updated " + describeAge(System.currentTimeMillis() - current.storedAt) + ".";
+    }
+
+    private static String describeAge(long ageMs) {
+        long minutes = Math.max(1, ageMs / 60000);
+        if (minutes < 60) return minutes == 1 ? "a minute ago" : minutes + " minutes ago";
+        long hours = minutes / 60;
+        if (hours < 48) return hours == 1 ? "an hour ago" : hours + " hours ago";
+        return hours / 24 + " days ago";
+    }
+
+    public void startPeriodicRefresh() {
+        if (periodic) return;
+        periodic = true;
+        mainHandler.post(periodicRefresh);
+    }
+
+    public void stopPeriodicRefresh() {
+        periodic = false;
+        mainHandler.removeCallbacks(periodicRefresh);
+    }
+
+    // Forgets the snapshot, so replay tests start each run cold; call on the main thread
+    void reset() {
+        snapshot = null;
+    }
+
+    private void refresh() {
+        if (refreshing) return;
+        refreshing = true;
+
+        ResponseCache cache = ResponseCache.getInstance();
+        if (snapshot != null || cache == null) {
+            fetchTopStories(null);
+            return;
+        }
+        // Cold start: a snapshot persisted by an earlier run may still be fresh
+        NetworkExecutor.getInstance().submit("HackerNewsFeed load",
+                () -> cache.getFromDisk(ApiEndpoint.HACKER_NEWS, CACHE_KEY), stored -> {
+                    if (stored != null && stored.isFresh()) {
+                        finishRefresh(stored);
+                    } else {
+                        fetchTopStories(stored);
+                    }
+                });
+    }
+
+    // On the main thread
+    private void finishRefresh(ResponseCache.Entry result) {
+        refreshing = false;
+        if (result != null) {
+            snapshot = result;
+        }
+
+        ResponseCache.Entry answer = snapshot;
+        List<NetworkHelper.NetworkCallback> callbacks = new ArrayList<>(waiting);
+        waiting.clear();
+        for (NetworkHelper.NetworkCallback callback : callbacks) {
+            if (answer != null) {
+                callback.onSuccess(answer.value);
+            } else {
+                callback.onError("Failed to fetch news stories");
+            }
+        }
+    }
+
+    // Everything after this runs on OkHttp's dispatcher; no pool thread waits for the items
+    private void fetchTopStories(ResponseCache.Entry stored) {
+        // With no snapshot yet, an expired persisted one beats nothing
+        ResponseCache.Entry fallback = snapshot == null ? stored : null;
+        VoxHttpClient.enqueueFields(ApiEndpoint.HACKER_NEWS, TOP_STORIES_URL, TOP_STORY_FIELDS, ids -> {
+            if (ids == null || ids.isEmpty()) {
+                Log.w(TAG, "Hacker News top stories unavailable");
+                mainHandler.post(() -> finishRefresh(fallback));
+                return;
+            }
+            String[] storyIds = new String[STORY_COUNT];
+            for (int i = 0; i < STORY_COUNT; i++) {
+                storyIds[i] = ids.get(Integer.toString(i));
+            }
+            new ItemFetch(storyIds, fallback).start();
+        });
+    }
+
+    /**
+     * The item fetches of one refresh: at most MAX_CONCURRENT_ITEMS in flight, the next one
+     * enqueued as each finishes. At ITEMS_DEADLINE_MS the rest are cancelled or never started.
+     */
+    private final class ItemFetch {
+        private final String[] ids;
+        private final ResponseCache.Entry fallback;
+        private final Map<Integer, Map<String, String>> items = new ConcurrentHashMap<>();
+        private final List<Call> calls = new ArrayList<>(STORY_COUNT);
+        private final Runnable deadline = this::expire;
+        private int next;
+        private int running;
+        private boolean expired;
+        private boolean finished;
+
+        ItemFetch(String[] ids, ResponseCache.Entry fallback) {
+            this.ids = ids;
+            this.fallback = fallback;
+        }
+
+        void start() {
+            mainHandler.postDelayed(deadline, ITEMS_DEADLINE_MS);
+            launchMore();
+        }
+
+        private void launchMore() {
+            List<Integer> launch = new ArrayList<>(MAX_CONCURRENT_ITEMS);
+            boolean done;
+            synchronized (this) {
+                while (!expired && running < MAX_CONCURRENT_ITEMS && next < ids.length) {
+                    int index = next++;
+                    if (ids[index] == null) continue;
+                    running++;
+                    launch.add(index);
+                }
+                done = running == 0 && !finished;
+                if (done) {
+                    finished = true;
+                }
+            }
+            if (done) {
+                finish();
+                return;
+            }
+
+            for (int index : launch) {
+                String url = ApiEndpoint.HACKER_NEWS_ITEM.url + ids[index] + ".json";
+                Call call = VoxHttpClient.enqueueFields(ApiEndpoint.HACKER_NEWS_ITEM, url, ITEM_FIELDS, fields -> {
+                    if (fields != null) {
+                        items.put(index, fields);
+                    }
+                    synchronized (this) {
+                        running--;
+                    }
+                    launchMore();
+                });
+                synchronized (this) {
+                    calls.add(call);
+                    if (expired) {
+                        call.cancel();
+                    }
+                }
+            }
+        }
+
+        private void expire() {
+            List<Call> started;
+            synchronized (this) {
+                expired = true;
+                started = new ArrayList<>(calls);
+            }
+            for (Call call : started) {
+                call.cancel();
+            }
+        }
+
+        private void finish() {
+            mainHandler.removeCallbacks(deadline);
+            String text = format(items);
+            ResponseCache.Entry result = fallback;
+            if (text != null) {
+                ResponseCache cache = ResponseCache.getInstance();
+                if (cache != null) {
+                    cache.put(ApiEndpoint.HACKER_NEWS, CACHE_KEY, text);
+                }
+                result = new ResponseCache.Entry(ApiEndpoint.HACKER_NEWS, text, System.currentTimeMillis());
+            }
+            ResponseCache.Entry answer = result;
+            mainHandler.post(() -> finishRefresh(answer));
+        }
+    }
+
+    private static String format(Map<Integer, Map<String, String>> items) {
+        StringBuilder result = new StringBuilder("Top Tech News:\n");
+        int found = 0;
+        for (int i = 0; i < STORY_COUNT; i++) {
+            Map<String, String> item = items.get(i);
+            if (item == null || !item.containsKey("title")) continue;
+            result.append("• ").append(item.get("title"));
+            if (item.containsKey("score")) {
+                result.append(" (").append(item.get("score")).append(" points)");
+            }
+            result.append("\n");
+            found++;
+        }
+        return found > 0 ? result.toString() : null;
+    }
+
+    private static String[] storyIndexes() {
+        String[] indexes = new String[STORY_COUNT];
+        for (int i = 0; i < STORY_COUNT; i++) {
+            indexes[i] = Integer.toString(i);
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,484 @@
+package com.nayanpote.voxnayanai;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * On-device term → summary index for offline answers. Entries are kept in a sorted file that
+ * is memory-mapped read-only and binary searched in place, so lookups never load the dataset
+ * onto the heap. New answers from Wikipedia and the dictionary are appended to a journal and
+ * merged into the index in the background, together with an optional bundled seed pack
+ * (assets/knowledge_seed.tsv, one "term&lt;TAB&gt;summary" per line).
+ *
+ * Each entry is keyed by its source as well as its term and carries the time it was stored,
+ * so online callers can tell a fresh answer from one that should be fetched again.
+ */
+public final class KnowledgeIndex {
+    private static final String TAG = "KnowledgeIndex";
+
+    private static final String INDEX_FILE = "knowledge.idx";
+    private static final String JOURNAL_FILE = "knowledge_journal.tsv";
+    private static final String SEED_ASSET = "knowledge_seed.tsv";
+
+    private static final int MAGIC = 0x564F5832; // "VOX2"; older files are rebuilt from the seed
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_ENTRIES = 4000;
+    private static final int MAX_SUMMARY_CHARS = 600;
+    // Journal entries held on the heap before they are merged into the mapped file
+    private static final int REBUILD_THRESHOLD = 20;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N} ]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern LEADING_ARTICLE = Pattern.compile("^(a|an|the) ");
+
+    private static volatile KnowledgeIndex instance;
+
+    private final Context context;
+    private final File indexFile;
+    private final File journalFile;
+    private final Map<String, Entry> pending = new HashMap<>();
+    private volatile ByteBuffer mapped;
+    private volatile boolean ready;
+    private boolean rebuilding;
+    // Bumped by reset(), so a rebuild that started before it does not bring old entries back
+    private int generation;
+
+    public enum Source {
+        WIKIPEDIA("w:", ApiEndpoint.WIKIPEDIA),
+        DICTIONARY("d:", ApiEndpoint.DICTIONARY),
+        // The bundled seed pack; never fresh, so it only answers offline
+        SEED("s:", null);
+
+        // Terms are normalized to letters, digits and spaces, so the prefix cannot collide
+        final String prefix;
+        final ApiEndpoint endpoint;
+
+        Source(String prefix, ApiEndpoint endpoint) {
+            this.prefix = prefix;
+            this.endpoint = endpoint;
+        }
+    }
+
+    public static final class Entry {
+        public final Source source;
+        public final String value;
+        public final long storedAt;
+
+        Entry(Source source, String value, long storedAt) {
+            this.source = source;
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+
+        // Within the freshness window of the API the answer came from
+        public boolean isFresh() {
+            return source.endpoint != null && System.currentTimeMillis() - storedAt < source.endpoint.freshForMs;
+        }
+    }
+
+    private static final class Record {
+        final long storedAt;
+        final byte[] value;
+
+        Record(long storedAt, byte[] value) {
+            this.storedAt = storedAt;
+            this.value = value;
+        }
+    }
+
+    private KnowledgeIndex(Context context) {
+        this.context = context;
+        this.indexFile = new File(context.getFilesDir(), INDEX_FILE);
+        this.journalFile = new File(context.getFilesDir(), JOURNAL_FILE);
+    }
+
+    public static void init(Context context) {
+        if (instance == null) {
+            synchronized (KnowledgeIndex.class) {
+                if (instance == null) {
+                    KnowledgeIndex index = new KnowledgeIndex(context.getApplicationContext());
+                    instance = index;
+                    // Mapping the file and reading the journal is disk work, so it stays off the main thread
+                    NetworkExecutor.getInstance().submit("KnowledgeIndex open", () -> {
+                        index.open();
+                        return null;
+                    }, result -> { });
+                }
+            }
+        }
+    }
+
+    // Null until init() has been called with a Context
+    public static KnowledgeIndex getInstance() {
+        return instance;
+    }
+
+    public static String normalize(String term) {
+        String lower = term == null ? "" : term.toLowerCase(Locale.ROOT);
+        String words = WHITESPACE.matcher(NON_WORD.matcher(lower).replaceAll(" ")).replaceAll(" ").trim();
+        return LEADING_ARTICLE.matcher(words).replaceFirst("");
+    }
+
+    private void open() {
+        boolean rebuild;
+        synchronized (this) {
+            mapped = map(indexFile);
+            readJournal();
+            ready = true;
+            rebuild = mapped == null || !pending.isEmpty();
+        }
+        if (rebuild) {
+            scheduleRebuild();
+        }
+    }
+
+    // False until the index file is mapped and the journal read
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Looks the term up for one source in recent answers, then in the mapped index. Safe on the
+     * main thread. Returns null when the term is unknown or the index is not ready yet.
+     */
+    public Entry lookup(String term, Source source) {
+        if (!ready) return null;
+        String normalized = normalize(term);
+        if (normalized.isEmpty()) return null;
+        String key = source.prefix + normalized;
+
+        synchronized (this) {
+            Entry recent = pending.get(key);
+            if (recent != null) return recent;
+        }
+
+        ByteBuffer buffer = mapped;
+        if (buffer == null) return null;
+        int record = find(buffer, key.getBytes(StandardCharsets.UTF_8));
+        return record < 0 ? null : new Entry(source, readValue(buffer, record), readStoredAt(buffer, record));
+    }
+
+    // The most recently stored answer from any source, however old; for answering offline
+    public Entry lookup(String term) {
+        Entry newest = null;
+        for (Source source : Source.values()) {
+            Entry entry = lookup(term, source);
+            if (entry != null && (newest == null || entry.storedAt > newest.storedAt)) {
+                newest = entry;
+            }
+        }
+        return newest;
+    }
+
+    // Remembers an online answer so the same question can be answered offline later
+    public void record(String term, Source source, String summary) {
+        String normalized = normalize(term);
+        if (normalized.isEmpty() || summary == null || summary.isEmpty()) return;
+        String key = source.prefix + normalized;
+        String value = summary.length() > MAX_SUMMARY_CHARS ? summary.substring(0, MAX_SUMMARY_CHARS) : summary;
+
+        boolean rebuild;
+        synchronized (this) {
+            Entry previous = pending.get(key);
+            // An unchanged answer is only rewritten to renew an expired timestamp
+            if (previous != null && previous.value.equals(value) && previous.isFresh()) return;
+            Entry entry = new Entry(source, value, System.currentTimeMillis());
+            pending.put(key, entry);
+            appendToJournal(key, entry);
+            // Before open() the current index is not mapped yet, and a rebuild would drop it
+            rebuild = ready && pending.size() >= REBUILD_THRESHOLD;
+        }
+        if (rebuild) {
+            scheduleRebuild();
+        }
+    }
+
+    // Drops every recorded answer and the seed, so replay tests start each run cold
+    synchronized void reset() {
+        generation++;
+        pending.clear();
+        mapped = null;
+        indexFile.delete();
+        journalFile.delete();
+    }
+
+    private void scheduleRebuild() {
+        synchronized (this) {
+            if (rebuilding) return;
+            rebuilding = true;
+        }
+        NetworkExecutor.getInstance().submit("KnowledgeIndex rebuild", () -> {
+            boolean again;
+            try {
+                rebuild();
+            } finally {
+                synchronized (this) {
+                    rebuilding = false;
+                    again = pending.size() >= REBUILD_THRESHOLD;
+                }
+            }
+            // Answers recorded while this rebuild ran may already fill another batch
+            if (again) {
+                scheduleRebuild();
+            }
+            return null;
+        }, result -> { });
+    }
+
+    // Merges seed, current index and journal into a new sorted file; runs off the voice path
+    private void rebuild() {
+        TreeMap<byte[], Record> entries = new TreeMap<>(KnowledgeIndex::compareBytes);
+        Map<String, Entry> merged;
+        int startedGeneration;
+        synchronized (this) {
+            merged = new HashMap<>(pending);
+            startedGeneration = generation;
+        }
+        // Newest answers first, so they survive the size cap
+        for (Map.Entry<String, Entry> entry : merged.entrySet()) {
+            entries.put(entry.getKey().getBytes(StandardCharsets.UTF_8),
+                    new Record(entry.getValue().storedAt, entry.getValue().value.getBytes(StandardCharsets.UTF_8)));
+        }
+        ByteBuffer current = mapped;
+        if (current != null) {
+            int count = current.getInt(4);
+            for (int i = 0; i < count && entries.size() < MAX_ENTRIES; i++) {
+                int record = current.getInt(HEADER_BYTES + i * 4);
+                entries.putIfAbsent(readKeyBytes(current, record),
+                        new Record(readStoredAt(current, record), readValueBytes(current, record)));
+            }
+        } else {
+            readSeed(entries);
+        }
+
+        File temp = new File(indexFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(entries.size());
+            int offset = HEADER_BYTES + entries.size() * 4;
+            for (Map.Entry<byte[], Record> entry : entries.entrySet()) {
+                out.writeInt(offset);
+                offset += 2 + entry.getKey().length + 8 + 4 + entry.getValue().value.length;
+            }
+            // Record layout: key length, key, stored-at millis, value length, value
+            for (Map.Entry<byte[], Record> entry : entries.entrySet()) {
+                out.writeShort(entry.getKey().length);
+                out.write(entry.getKey());
+                out.writeLong(entry.getValue().storedAt);
+                out.writeInt(entry.getValue().value.length);
+                out.write(entry.getValue().value);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write knowledge index", e);
+            temp.delete();
+            return;
+        }
+        synchronized (this) {
+            if (generation != startedGeneration || !temp.renameTo(indexFile)) {
+                temp.delete();
+                return;
+            }
+            mapped = map(indexFile);
+            // Keep anything recorded while the rebuild was running
+            for (Map.Entry<String, Entry> entry : merged.entrySet()) {
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+            journalFile.delete();
+            for (Map.Entry<String, Entry> entry : pending.entrySet()) {
+                appendToJournal(entry.getKey(), entry.getValue());
+            }
+        }
+        Log.d(TAG, "Rebuilt knowledge index with " + entries.size() + " entries");
+    }
+
+    private static ByteBuffer map(File file) {
+        if (!file.exists()) return null;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                Log.w(TAG, "Ignoring malformed knowledge index");
+                return null;
+            }
+            return buffer;
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to map knowledge index", e);
+            return null;
+        }
+    }
+
+    // Binary search over the offset table using absolute reads only
+    private static int find(ByteBuffer buffer, byte[] key) {
+        int low = 0;
+        int high = buffer.getInt(4) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int record = buffer.getInt(HEADER_BYTES + mid * 4);
+            int cmp = compareKey(buffer, record, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return record;
+            }
+        }
+        return -1;
+    }
+
+    private static int compareKey(ByteBuffer buffer, int record, byte[] key) {
+        int length = buffer.getShort(record) & 0xFFFF;
+        int start = record + 2;
+        int shared = Math.min(length, key.length);
+        for (int i = 0; i < shared; i++) {
+            int cmp = (buffer.get(start + i) & 0xFF) - (key[i] & 0xFF);
+            if (cmp != 0) return cmp;
+        }
+        return length - key.length;
+    }
+
+    private static byte[] readKeyBytes(ByteBuffer buffer, int record) {
+        byte[] key = new byte[buffer.getShort(record) & 0xFFFF];
+        for (int i = 0; i < key.length; i++) {
+            key[i] = buffer.get(record + 2 + i);
+        }
+        return key;
+    }
+
+    private static long readStoredAt(ByteBuffer buffer, int record) {
+        return buffer.getLong(record + 2 + (buffer.getShort(record) & 0xFFFF));
+    }
+
+    private static byte[] readValueBytes(ByteBuffer buffer, int record) {
+        int valueAt = record + 2 + (buffer.getShort(record) & 0xFFFF) + 8;
+        byte[] value = new byte[buffer.getInt(valueAt)];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = buffer.get(valueAt + 4 + i);
+        }
+        return value;
+    }
+
+    private static String readValue(ByteBuffer buffer, int record) {
+        return new String(readValueBytes(buffer, record), StandardCharsets.UTF_8);
+    }
+
+    private static int compareBytes(byte[] a, byte[] b) {
+        int shared = Math.min(a.length, b.length);
+        for (int i = 0; i < shared; i++) {
+            int cmp = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (cmp != 0) return cmp;
+        }
+        return a.length - b.length;
+    }
+
+    private void readSeed(TreeMap<byte[], Record> entries) {
+        try (InputStream in = context.getAssets().open(SEED_ASSET)) {
+            for (String[] line : readTsv(in, 2)) {
+                String term = normalize(line[0]);
+                if (entries.size() >= MAX_ENTRIES) break;
+                if (!term.isEmpty()) {
+                    entries.putIfAbsent((Source.SEED.prefix + term).getBytes(StandardCharsets.UTF_8),
+                            new Record(0, line[1].getBytes(StandardCharsets.UTF_8)));
+                }
+            }
+        } catch (IOException e) {
+            // The seed pack is optional
+        }
+    }
+
+    private void readJournal() {
+        if (!journalFile.exists()) return;
+        try (InputStream in = new FileInputStream(journalFile)) {
+            // key, stored-at millis, summary; lines from before sources were tracked are dropped
+            for (String[] line : readTsv(in, 3)) {
+                Source source = sourceOf(line[0]);
+                if (source == null) continue;
+                try {
+                    pending.put(line[0], new Entry(source, line[2], Long.parseLong(line[1])));
+                } catch (NumberFormatException e) {
+                    // Not written by this version
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read knowledge journal", e);
+        }
+    }
+
+    private static Source sourceOf(String key) {
+        for (Source source : Source.values()) {
+            if (key.startsWith(source.prefix)) return source;
+        }
+        return null;
+    }
+
+    private void appendToJournal(String key, Entry entry) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(journalFile, true))) {
+            writer.write(escape(key));
+            writer.write('\t');
+            writer.write(Long.toString(entry.storedAt));
+            writer.write('\t');
+            writer.write(escape(entry.value));
+            writer.write('\n');
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to append to knowledge journal", e);
+        }
+    }
+
+    // Lines with fewer than the given number of columns are skipped
+    private static List<String[]> readTsv(InputStream in, int columns) throws IOException {
+        List<String[]> lines = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] fields = line.split("\t", columns);
+            if (fields.length < columns || fields[0].isEmpty()) continue;
+            for (int i = 0; i < columns; i++) {
+                fields[i] = unescape(fields[i]);
+            }
+            lines.add(fields);
+        }
+        return lines;
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    private static String unescape(String text) {
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                result.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,164 @@
+package com.nayanpote.voxnayanai;
+
+import android.os.SystemClock;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Per-utterance latency trace from end of speech to first audio. Each stage is stamped once
+ * with the monotonic clock; traces live in a fixed-size ring, so tracing costs one small
+ * allocation per utterance and old traces are simply overwritten. dump() aggregates the ring
+ * into per-intent percentiles for `adb shell dumpsys activity service VoxService`.
+ */
+public final class LatencyTracer {
+
+    public enum Stage {
+        END_OF_SPEECH, RESULTS, INTENT, NETWORK_START, NETWORK_END, DELIVERED, FIRST_AUDIO
+    }
+
+    // Power of two so the ring index is a mask
+    private static final int RING_SIZE = 256;
+    private static final int[] PERCENTILES = {50, 95, 99};
+
+    // Reported spans: name, from stage, to stage
+    private static final String[] SPAN_NAMES = {
+            "time-to-speech", "recognition", "decision", "network", "answer", "speech-start"};
+    private static final Stage[][] SPANS = {
+            {null, Stage.FIRST_AUDIO},
+            {Stage.END_OF_SPEECH, Stage.RESULTS},
+            {Stage.RESULTS, Stage.INTENT},
+            {Stage.NETWORK_START, Stage.NETWORK_END},
+            {Stage.INTENT, Stage.DELIVERED},
+            {Stage.DELIVERED, Stage.FIRST_AUDIO}};
+
+    private static final AtomicReferenceArray<Trace> RING = new AtomicReferenceArray<>(RING_SIZE);
+    private static final AtomicInteger NEXT = new AtomicInteger();
+    private static final ThreadLocal<Trace> CURRENT = new ThreadLocal<>();
+
+    public static final class Trace {
+        // Nanoseconds from elapsedRealtimeNanos; 0 means the stage has not happened
+        private final AtomicLongArray stamps = new AtomicLongArray(Stage.values().length);
+        private volatile String intent;
+
+        private Trace() {
+        }
+
+        /**
+         * Records the stage the first time it is reached. NETWORK_END keeps the latest
+         * stamp, so a command that makes several lookups reports until the last one ends.
+         */
+        public void mark(Stage stage) {
+            long now = SystemClock.elapsedRealtimeNanos();
+            if (stage == Stage.NETWORK_END) {
+                stamps.set(stage.ordinal(), now);
+            } else {
+                stamps.compareAndSet(stage.ordinal(), 0, now);
+            }
+        }
+
+        public void setIntent(String intent) {
+            if (this.intent == null) {
+                this.intent = intent;
+            }
+        }
+
+        long stamp(Stage stage) {
+            return stamps.get(stage.ordinal());
+        }
+
+        // The earliest stage reached, i.e. where the utterance entered the pipeline
+        long start() {
+            for (int i = 0; i < stamps.length(); i++) {
+                if (stamps.get(i) != 0) return stamps.get(i);
+            }
+            return 0;
+        }
+    }
+
+    private LatencyTracer() {
+    }
+
+    // Starts a trace and puts it in the ring, replacing the oldest one
+    public static Trace begin() {
+        Trace trace = new Trace();
+        RING.set(NEXT.getAndIncrement() & (RING_SIZE - 1), trace);
+        return trace;
+    }
+
+    /**
+     * Makes the trace current on this thread, so lookups started while dispatching a command
+     * stamp it. Returns the previous trace for exit().
+     */
+    public static Trace enter(Trace trace) {
+        Trace previous = CURRENT.get();
+        CURRENT.set(trace);
+        return previous;
+    }
+
+    public static void exit(Trace previous) {
+        CURRENT.set(previous);
+    }
+
+    // Null outside a traced dispatch
+    public static Trace current() {
+        return CURRENT.get();
+    }
+
+    public static void dump(PrintWriter writer) {
+        // intent -> one duration list per span
+        Map<String, List<List<Long>>> byIntent = new TreeMap<>();
+        int traces = 0;
+        for (int i = 0; i < RING_SIZE; i++) {
+            Trace trace = RING.get(i);
+            if (trace == null) continue;
+            traces++;
+            String intent = trace.intent != null ? trace.intent : "UNCLASSIFIED";
+            List<List<Long>> spans = byIntent.get(intent);
+            if (spans == null) {
+                spans = new ArrayList<>(SPANS.length);
+                for (int s = 0; s < SPANS.length; s++) spans.add(new ArrayList<>());
+                byIntent.put(intent, spans);
+            }
+            for (int s = 0; s < SPANS.length; s++) {
+                long from = SPANS[s][0] != null ? trace.stamp(SPANS[s][0]) : trace.start();
+                long to = trace.stamp(SPANS[s][1]);
+                if (from != 0 && to >= from) {
+                    spans.get(s).add((to - from) / 1_000_000);
+                }
+            }
+        }
+
+        writer.println("Latency (ms) over the last " + traces + " utterances:");
+        for (Map.Entry<String, List<List<Long>>> entry : byIntent.entrySet()) {
+            writer.println("  " + entry.getKey());
+            for (int s = 0; s < SPANS.length; s++) {
+                List<Long> durations = entry.getValue().get(s);
+                if (durations.isEmpty()) continue;
+                writer.println("    " + SPAN_NAMES[s] + ": " + percentiles(durations));
+            }
+        }
+        writer.flush();
+    }
+
+    private static String percentiles(List<Long> durations) {
+        long[] sorted = new long[durations.size()];
+        for (int i = 0; i < sorted.length; i++) sorted[i] = durations.get(i);
+        Arrays.sort(sorted);
+
+        StringBuilder result = new StringBuilder();
+        for (int p : PERCENTILES) {
+            // Nearest-rank percentile
+            int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+            result.append('p').append(p).append('=').append(sorted[Math.max(rank, 1) - 1]).append(' ');
+        }
+        return result.append("n=").append(sorted.length).toString();
+    }
+}
@@ -2,16 +2,12 @@ package com.nayanpote.voxnayanai;
 
 import android.Manifest;
 import android.app.AlertDialog;
-import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.SharedPreferences;
 import android.content.pm.PackageManager;
 import android.graphics.ImageDecoder;
 import android.graphics.drawable.AnimatedImageDrawable;
-import android.net.ConnectivityManager;
-import android.net.NetworkInfo;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
@@ -44,6 +40,8 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
 
     private static final int REQUEST_RECORD_AUDIO = 1001;
     private static final int REQUEST_OVERLAY_PERMISSION = 1002;
+    private static final float SPEECH_RATE = 0.9f;
+    private static final float SPEECH_PITCH = 1.0f;
 
     // UI Components
     private TextView tvResponse, tvStatus, tvNetworkStatus, tvWakeWordStatus;
@@ -59,9 +57,13 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
 
     // Core Components
     private TextToSpeech textToSpeech;
+    private SpeechOutput speechOutput;
     private SpeechRecognizer speechRecognizer;
     private Intent speechRecognizerIntent;
     private VoxAIProcessor aiProcessor;
+    private RequestHandle currentRequest;
+    // Started at end of speech, continued through the command to the first audio
+    private LatencyTracer.Trace pendingTrace;
     private SharedPreferences preferences;
 
     // Animation Components
@@ -75,7 +77,7 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
     private String userName = "User";
 
     // Network Monitor
-    private BroadcastReceiver networkReceiver;
+    private ConnectivityMonitor.Listener connectivityListener;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -154,23 +156,14 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
     }
 
     private void initializeNetworkMonitor() {
-        networkReceiver = new BroadcastReceiver() {
-            @Override
-            public void onReceive(Context context, Intent intent) {
-                checkNetworkStatus();
-            }
-        };
-
-        IntentFilter filter = new IntentFilter();
-        filter.addAction(ConnectivityManager.CONNECTIVITY_ACTION);
-        registerReceiver(networkReceiver, filter);
+        ConnectivityMonitor.init(this);
+        connectivityListener = snapshot -> checkNetworkStatus();
+        ConnectivityMonitor.getInstance().addListener(connectivityListener);
     }
 
     private void checkNetworkStatus() {
-        ConnectivityManager cm = (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
-        NetworkInfo activeNetwork = cm.getActiveNetworkInfo();
         boolean wasConnected = isNetworkConnected;
-        isNetworkConnected = activeNetwork != null && activeNetwork.isConnected();
+        isNetworkConnected = ConnectivityMonitor.current().hasInternet();
 
         updateNetworkStatusUI();
 
@@ -196,12 +189,6 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
                 tvNetworkStatus.setText("OFFLINE");
                 tvNetworkStatus.setTextColor(getResources().getColor(R.color.ai_error_red));
                 animationManager.animateStatusIndicator(tvNetworkStatus, false);
-
-                // Stop listening when going offline
-                if (isListening) {
-                    stopListening();
-                    updateResponse("Network connection lost. Voice recognition paused.");
-                }
             }
         }
     }
@@ -243,6 +230,8 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
 
             @Override
             public void onEndOfSpeech() {
+                pendingTrace = LatencyTracer.begin();
+                pendingTrace.mark(LatencyTracer.Stage.END_OF_SPEECH);
                 showListening(false);
                 animationManager.stopListeningMode();
             }
@@ -253,6 +242,7 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
                 isListening = false;
                 animationManager.playErrorAnimation();
                 handleSpeechError(error);
+                aiProcessor.cancelSpeculation();
             }
 
             @Override
@@ -263,6 +253,10 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
                 ArrayList<String> matches = results.getStringArrayList(SpeechRecognizer.RESULTS_RECOGNITION);
                 if (matches != null && !matches.isEmpty()) {
                     String spokenText = matches.get(0);
+                    if (pendingTrace == null) {
+                        pendingTrace = LatencyTracer.begin();
+                    }
+                    pendingTrace.mark(LatencyTracer.Stage.RESULTS);
                     animationManager.playProcessingAnimation();
                     processVoiceCommand(spokenText);
                 }
@@ -274,6 +268,7 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
                 if (partialMatches != null && !partialMatches.isEmpty()) {
                     updateResponse("Processing: " + partialMatches.get(0));
                     animationManager.updateProcessingText();
+                    aiProcessor.onPartialTranscript(partialMatches.get(0));
                 }
             }
 
@@ -284,6 +279,8 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
 
     private void initializeAIProcessor() {
         aiProcessor = new VoxAIProcessor(this);
+        // A new command replaces one still waiting for its answer
+        aiProcessor.setSupersedePrevious(true);
     }
 
     private void initializeAnimationManager() {
@@ -372,13 +369,6 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
             return;
         }
 
-        if (!isNetworkConnected) {
-            updateResponse("No network connection detected. Voice recognition requires internet connectivity.");
-            speakText("Network connection required for voice recognition.");
-            animationManager.playNetworkErrorAnimation();
-            return;
-        }
-
         if (isListening) {
             stopListening();
         } else {
@@ -390,6 +380,8 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
         if (ContextCompat.checkSelfPermission(this, Manifest.permission.RECORD_AUDIO)
                 == PackageManager.PERMISSION_GRANTED) {
             isListening = true;
+            // Offline, ask for on-device recognition; answers then come from the knowledge index
+            speechRecognizerIntent.putExtra(RecognizerIntent.EXTRA_PREFER_OFFLINE, !isNetworkConnected);
             speechRecognizer.startListening(speechRecognizerIntent);
             animationManager.startVoiceInputMode();
             updateResponse("Neural network listening...");
@@ -423,25 +415,28 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
     }
 
     private void processVoiceCommand(String command) {
+        LatencyTracer.Trace trace = pendingTrace != null ? pendingTrace : LatencyTracer.begin();
+        pendingTrace = null;
         updateResponse("Neural processing: " + command);
         animationManager.playThinkingAnimation();
 
         // Check for wake words
         if (aiProcessor.isWakeWord(command)) {
             String response = "Yes " + userName + ", neural networks are active. How may I assist you?";
+            trace.setIntent("WAKE_WORD");
             updateResponse(response);
-            speakText(response);
+            speakText(response, trace);
             animationManager.playResponseAnimation();
             return;
         }
 
         // Process the command with AI
-        aiProcessor.processCommand(command, new VoxAIProcessor.AIResponseCallback() {
+        currentRequest = aiProcessor.processCommand(command, trace, new VoxAIProcessor.AIResponseCallback() {
             @Override
             public void onResponse(String response) {
                 runOnUiThread(() -> {
                     updateResponse(response);
-                    speakText(response);
+                    speakText(response, trace);
                     animationManager.playResponseAnimation();
                 });
             }
@@ -450,7 +445,7 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
             public void onError(String error) {
                 runOnUiThread(() -> {
                     updateResponse("Neural processing error: " + error);
-                    speakText("I encountered an error while processing your request.");
+                    speakText("I encountered an error while processing your request.", trace);
                     animationManager.playErrorAnimation();
                 });
             }
@@ -463,8 +458,12 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
     }
 
     private void speakText(String text) {
+        speakText(text, null);
+    }
+
+    private void speakText(String text, LatencyTracer.Trace trace) {
         if (isTTSInitialized && textToSpeech != null) {
-            textToSpeech.speak(text, TextToSpeech.QUEUE_FLUSH, null, null);
+            speechOutput.speak(text, trace);
             animationManager.playSpeakingAnimation();
         }
     }
@@ -577,8 +576,14 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
                 Toast.makeText(this, "Text-to-Speech language not supported", Toast.LENGTH_SHORT).show();
             } else {
                 isTTSInitialized = true;
-                textToSpeech.setSpeechRate(0.9f);
-                textToSpeech.setPitch(1.0f);
+                textToSpeech.setSpeechRate(SPEECH_RATE);
+                textToSpeech.setPitch(SPEECH_PITCH);
+                SpeechCache.init(this);
+                speechOutput = new SpeechOutput(textToSpeech,
+                        SpeechCache.getInstance().attach(textToSpeech, SPEECH_RATE, SPEECH_PITCH));
+                if (aiProcessor != null) {
+                    speechOutput.prewarm(aiProcessor.getGreetingResponses());
+                }
                 animationManager.playTTSInitializedAnimation();
             }
         } else {
@@ -605,14 +610,16 @@ public class MainActivity extends AppCompatActivity implements TextToSpeech.OnIn
     protected void onDestroy() {
         super.onDestroy();
 
-        if (networkReceiver != null) {
-            try {
-                unregisterReceiver(networkReceiver);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+        if (connectivityListener != null) {
+            ConnectivityMonitor.getInstance().removeListener(connectivityListener);
         }
 
+        if (currentRequest != null) {
+            currentRequest.cancel();
+        }
+        if (speechOutput != null) {
+            speechOutput.cancel();
+        }
         if (textToSpeech != null) {
             textToSpeech.stop();
             textToSpeech.shutdown();
@@ -0,0 +1,184 @@
+package com.nayanpote.voxnayanai;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, named worker pool for network lookups. Results are delivered on the main thread.
+ */
+public final class NetworkExecutor {
+    private static final String TAG = "NetworkExecutor";
+
+    private static final int DEFAULT_PARALLELISM = 4;
+    private static final int MAX_QUEUED_TASKS = 64;
+    private static final long KEEP_ALIVE_SECONDS = 30;
+    // Queue waits longer than this are logged; a voice query is stuck behind others
+    private static final long SLOW_QUEUE_WAIT_MS = 500;
+
+    private static volatile NetworkExecutor instance;
+
+    private final ThreadPoolExecutor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final AtomicLong submittedTasks = new AtomicLong();
+    private final AtomicLong rejectedTasks = new AtomicLong();
+    private final AtomicLong longestQueueWaitMs = new AtomicLong();
+
+    public interface ResultListener<T> {
+        void onResult(T result);
+    }
+
+    private NetworkExecutor(int parallelism) {
+        executor = new ThreadPoolExecutor(parallelism, parallelism,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(MAX_QUEUED_TASKS),
+                new NamedThreadFactory("vox-net"));
+        // Let idle workers die so the always-on service does not pin threads
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static NetworkExecutor getInstance() {
+        if (instance == null) {
+            synchronized (NetworkExecutor.class) {
+                if (instance == null) {
+                    instance = new NetworkExecutor(DEFAULT_PARALLELISM);
+                }
+            }
+        }
+        return instance;
+    }
+
+    public synchronized void setParallelism(int parallelism) {
+        int size = Math.max(1, parallelism);
+        if (size > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(size);
+            executor.setCorePoolSize(size);
+        } else {
+            executor.setCorePoolSize(size);
+            executor.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * Runs the work on a pool thread and hands the result to the listener on the main thread.
+     * A failed or rejected task delivers null.
+     */
+    public <T> void submit(String name, Callable<T> work, ResultListener<T> listener) {
+        long enqueuedAt = SystemClock.elapsedRealtime();
+        submittedTasks.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                recordQueueWait(name, SystemClock.elapsedRealtime() - enqueuedAt);
+                T result = null;
+                try {
+                    result = work.call();
+                } catch (Exception e) {
+                    Log.e(TAG, name + " failed", e);
+                }
+                deliver(listener, result);
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedTasks.incrementAndGet();
+            Log.w(TAG, name + " rejected: " + getQueueDepth() + " tasks queued, "
+                    + getActiveCount() + " active");
+            deliver(listener, null);
+        }
+    }
+
+    public void postToMain(Runnable runnable) {
+        mainHandler.post(runnable);
+    }
+
+    public void postToMainDelayed(Runnable runnable, long delayMs) {
+        mainHandler.postDelayed(runnable, delayMs);
+    }
+
+    // Runs right away when already on the main thread, so results delivered there take no extra hop
+    public void runOnMain(Runnable runnable) {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            runnable.run();
+        } else {
+            mainHandler.post(runnable);
+        }
+    }
+
+    private <T> void deliver(ResultListener<T> listener, T result) {
+        mainHandler.post(() -> listener.onResult(result));
+    }
+
+    private void recordQueueWait(String name, long waitMs) {
+        long longest = longestQueueWaitMs.get();
+        while (waitMs > longest && !longestQueueWaitMs.compareAndSet(longest, waitMs)) {
+            longest = longestQueueWaitMs.get();
+        }
+        if (waitMs > SLOW_QUEUE_WAIT_MS) {
+            Log.w(TAG, name + " waited " + waitMs + "ms in queue (" + getQueueDepth() + " still queued)");
+        }
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getParallelism() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public long getSubmittedCount() {
+        return submittedTasks.get();
+    }
+
+    public long getCompletedCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    public long getRejectedCount() {
+        return rejectedTasks.get();
+    }
+
+    public long getLongestQueueWaitMs() {
+        return longestQueueWaitMs.get();
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkExecutor{parallelism=" + getParallelism()
+                + ", active=" + getActiveCount()
+                + ", queued=" + getQueueDepth()
+                + ", submitted=" + getSubmittedCount()
+                + ", completed=" + getCompletedCount()
+                + ", rejected=" + getRejectedCount()
+                + ", longestQueueWaitMs=" + getLongestQueueWaitMs() + "}";
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
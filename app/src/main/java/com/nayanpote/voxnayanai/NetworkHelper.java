@@ -1,1002 +1,1036 @@
 package com.nayanpote.voxnayanai;
 
-import android.os.AsyncTask;
+import android.content.Context;
 import android.util.Log;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Request;
 
 public class NetworkHelper {
     private static final String TAG = "NetworkHelper";
 
-    // Free API endpoints
-    private static final String WIKIPEDIA_API = "https://en.wikipedia.org/api/rest_v1/page/summary/";
-    private static final String REST_COUNTRIES_API = "https://restcountries.com/v3.1/name/";
-    private static final String JOKES_API = "https://official-joke-api.appspot.com/random_joke";
-    private static final String CAT_FACTS_API = "https://catfact.ninja/fact";
-    private static final String NUMBERS_API = "http://numbersapi.com/";
-    private static final String QUOTABLE_API = "https://api.quotable.io/random";
-    private static final String PROGRAMMING_QUOTES_API = "https://programming-quotes-api.herokuapp.com/quotes/random";
-    private static final String OPEN_TRIVIA_API = "https://opentdb.com/api.php?amount=1&type=multiple";
-    private static final String DOG_FACTS_API = "https://dog-api.kinduff.com/api/facts";
-    private static final String ADVICE_API = "https://api.adviceslip.com/advice";
-    private static final String DICTIONARY_API = "https://api.dictionaryapi.dev/api/v2/entries/en/";
-
-    // Additional free APIs
-    private static final String NEWS_API = "https://api.currentsapi.services/v1/latest-news?apiKey=YOUR_API_KEY";
-    private static final String HACKER_NEWS_API = "https://hacker-news.firebaseio.com/v0/topstories.json";
-    private static final String HACKER_NEWS_ITEM_API = "https://hacker-news.firebaseio.com/v0/item/";
-    private static final String WEATHER_API = "https://api.open-meteo.com/v1/forecast?latitude=52.52&longitude=13.41&current=temperature_2m,weathercode";
-    private static final String CRYPTO_API = "https://api.coinbase.com/v2/exchange-rates";
-    private static final String JOKE_NINJA_API = "https://api.api-ninjas.com/v1/jokes";
-    private static final String FACTS_API = "https://api.api-ninjas.com/v1/facts";
-    private static final String QUOTES_NINJA_API = "https://api.api-ninjas.com/v1/quotes";
-    private static final String RIDDLES_API = "https://riddles-api.vercel.app/random";
-    private static final String ACTIVITIES_API = "https://www.boredapi.com/api/activity";
-    private static final String GENDER_API = "https://api.genderize.io/?name=";
-    private static final String NATIONALITY_API = "https://api.nationalize.io/?name=";
-    private static final String AGE_API = "https://api.agify.io/?name=";
-    private static final String UNIVERSITIES_API = "http://universities.hipolabs.com/search?name=";
-    private static final String GITHUB_API = "https://api.github.com/users/";
-    private static final String JSON_PLACEHOLDER_API = "https://jsonplaceholder.typicode.com/posts/";
+    // Overall budget for the parallel gender/age/nationality lookups
+    private static final long NAME_INFO_DEADLINE_MS = 3000;
+    private static final String NAME_INFO_KEY_PREFIX = "nameInfo/";
+
+    // Fields each endpoint actually reads; everything else in the response is skipped
+    private static final JsonFieldExtractor WIKIPEDIA_FIELDS = new JsonFieldExtractor("extract");
+    private static final JsonFieldExtractor COUNTRY_FIELDS = new JsonFieldExtractor(
+            "0.name.common", "0.capital.0", "0.population", "0.region", "0.currencies.*.name", "0.languages.*");
+    // Top-level fields restcountries returns; the full document is several KB per country
+    private static final String COUNTRY_QUERY_FIELDS = "name,capital,population,region,currencies,languages";
+    private static final JsonFieldExtractor JOKE_FIELDS = new JsonFieldExtractor("setup", "punchline");
+    private static final JsonFieldExtractor CAT_FACT_FIELDS = new JsonFieldExtractor("fact");
+    private static final JsonFieldExtractor DOG_FACT_FIELDS = new JsonFieldExtractor("facts.0");
+    private static final JsonFieldExtractor QUOTE_FIELDS = new JsonFieldExtractor("content", "author");
+    private static final JsonFieldExtractor PROGRAMMING_QUOTE_FIELDS = new JsonFieldExtractor("en", "author");
+    private static final JsonFieldExtractor TRIVIA_FIELDS = new JsonFieldExtractor(
+            "results.0.category", "results.0.question", "results.0.correct_answer");
+    private static final JsonFieldExtractor ADVICE_FIELDS = new JsonFieldExtractor("slip.advice");
+    private static final JsonFieldExtractor DEFINITION_FIELDS = new JsonFieldExtractor(
+            "0.meanings.0.partOfSpeech", "0.meanings.0.definitions.0.definition");
+    // Spot prices are fetched per coin instead of reading the full exchange rate table
+    private static final String[] CRYPTO_SYMBOLS = {"BTC", "ETH"};
+    private static final String[] CRYPTO_NAMES = {"Bitcoin", "Ethereum"};
+    private static final JsonFieldExtractor SPOT_PRICE_FIELDS = new JsonFieldExtractor("data.amount");
+    private static final JsonFieldExtractor ACTIVITY_FIELDS = new JsonFieldExtractor("activity", "type");
+    private static final JsonFieldExtractor GENDER_FIELDS = new JsonFieldExtractor("gender", "probability");
+    private static final JsonFieldExtractor AGE_FIELDS = new JsonFieldExtractor("age");
+    private static final JsonFieldExtractor NATIONALITY_FIELDS = new JsonFieldExtractor(
+            "country.0.country_id", "country.0.probability");
+    private static final ApiEndpoint[] NAME_PARTS = {ApiEndpoint.GENDER, ApiEndpoint.AGE, ApiEndpoint.NATIONALITY};
+    private static final JsonFieldExtractor[] NAME_PART_FIELDS = {GENDER_FIELDS, AGE_FIELDS, NATIONALITY_FIELDS};
+    private static final int UNIVERSITY_RESULTS = 3;
+    private static final JsonFieldExtractor UNIVERSITY_FIELDS = new JsonFieldExtractor(
+            "0.name", "0.country", "1.name", "1.country", "2.name", "2.country");
+    private static final JsonFieldExtractor GITHUB_USER_FIELDS = new JsonFieldExtractor(
+            "login", "name", "public_repos", "followers", "bio");
+    private static final JsonFieldExtractor RANDOM_FACT_FIELDS = new JsonFieldExtractor("0.fact");
+    private static final JsonFieldExtractor RIDDLE_FIELDS = new JsonFieldExtractor("riddle", "answer");
+
+    // Lookups in flight, keyed like ResponseCache entries
+    private static final Map<String, InFlight> IN_FLIGHT = new HashMap<>();
+    private static final AtomicLong DEDUPLICATED_CALLS = new AtomicLong();
+    private static final AtomicLong ABANDONED_CALLS = new AtomicLong();
+
+    // Cache keys with a background refresh already in flight
+    private static final Set<String> REVALIDATING_KEYS = ConcurrentHashMap.newKeySet();
+
+    // How long a speculative result waits for the final transcript to claim it
+    private static final long PREFETCH_HOLD_MS = 15000;
+    // Speculation runs ahead of one transcript at a time, so a handful of held results is plenty
+    private static final int MAX_PREFETCHED = 8;
+    // Results of speculative lookups nobody else was waiting for, oldest first, guarded by IN_FLIGHT
+    private static final LinkedHashMap<String, Prefetched> PREFETCHED = new LinkedHashMap<>();
+    private static final AtomicLong PREFETCH_HITS = new AtomicLong();
 
     public interface NetworkCallback {
         void onSuccess(String result);
         void onError(String error);
     }
 
-    public static void searchWikipedia(String query, NetworkCallback callback) {
-        new AsyncTask<String, Void, String>() {
-            @Override
-            protected String doInBackground(String... params) {
-                try {
-                    String encodedQuery = URLEncoder.encode(params[0], "UTF-8");
-                    String urlString = WIKIPEDIA_API + encodedQuery;
-
-                    URL url = new URL(urlString);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
-                    connection.setRequestProperty("User-Agent", "VoxAI/1.0");
-
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    connection.disconnect();
-
-                    JSONObject jsonObject = new JSONObject(response.toString());
-                    if (jsonObject.has("extract")) {
-                        return jsonObject.getString("extract");
-                    } else {
-                        return "No information found for " + params[0];
-                    }
-
-                } catch (Exception e) {
-                    Log.e(TAG, "Wikipedia search error", e);
-                    return null;
-                }
-            }
-
-            @Override
-            protected void onPostExecute(String result) {
-                if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to fetch Wikipedia information");
-                }
-            }
-        }.execute(query);
+    /**
+     * Callback for speculative lookups started before the final transcript. Its result is held
+     * for the next identical lookup instead of being delivered anywhere.
+     */
+    public static final NetworkCallback PREFETCH = new NetworkCallback() {
+        @Override
+        public void onSuccess(String result) { }
+
+        @Override
+        public void onError(String error) { }
+    };
+
+    private static final class Waiter {
+        final NetworkCallback callback;
+        final RequestHandle handle;
+
+        Waiter(NetworkCallback callback, RequestHandle handle) {
+            this.callback = callback;
+            this.handle = handle;
+        }
     }
 
-    public static void searchCountryInfo(String countryName, NetworkCallback callback) {
-        new AsyncTask<String, Void, String>() {
-            @Override
-            protected String doInBackground(String... params) {
-                try {
-                    String encodedCountry = URLEncoder.encode(params[0], "UTF-8");
-                    String urlString = REST_COUNTRIES_API + encodedCountry;
-
-                    URL url = new URL(urlString);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
-
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    connection.disconnect();
-
-                    JSONArray jsonArray = new JSONArray(response.toString());
-                    if (jsonArray.length() > 0) {
-                        JSONObject country = jsonArray.getJSONObject(0);
-                        StringBuilder countryInfo = new StringBuilder();
-
-                        String name = country.getJSONObject("name").getString("common");
-                        countryInfo.append("Country: ").append(name);
-
-                        if (country.has("capital") && country.getJSONArray("capital").length() > 0) {
-                            countryInfo.append("\nCapital: ").append(country.getJSONArray("capital").getString(0));
-                        }
-
-                        if (country.has("population")) {
-                            long population = country.getLong("population");
-                            countryInfo.append("\nPopulation: ").append(String.format("%,d", population));
-                        }
+    // One network call and everyone waiting on it; the connection is aborted when all leave
+    private static final class InFlight {
+        final List<Waiter> waiting = new ArrayList<>(2);
+        final RequestHandle connection = new RequestHandle();
+    }
 
-                        if (country.has("region")) {
-                            countryInfo.append("\nRegion: ").append(country.getString("region"));
-                        }
+    private static final class Prefetched {
+        final String value;
+        final long storedAt;
 
-                        if (country.has("currencies")) {
-                            JSONObject currencies = country.getJSONObject("currencies");
-                            Iterator<String> currencyKeys = currencies.keys();
-                            if (currencyKeys.hasNext()) {
-                                String key = currencyKeys.next();
-                                JSONObject currency = currencies.getJSONObject(key);
-                                countryInfo.append("\nCurrency: ").append(currency.getString("name"));
-                            }
-                        }
+        Prefetched(String value) {
+            this.value = value;
+            this.storedAt = System.currentTimeMillis();
+        }
 
-                        if (country.has("languages")) {
-                            JSONObject languages = country.getJSONObject("languages");
-                            Iterator<String> langKeys = languages.keys();
-                            if (langKeys.hasNext()) {
-                                String key = langKeys.next();
-                                countryInfo.append("\nLanguages: ").append(languages.getString(key));
-                            }
-                        }
+        boolean isExpired() {
+            return System.currentTimeMillis() - storedAt > PREFETCH_HOLD_MS;
+        }
+    }
 
+    /**
+     * Work that finishes on its own, e.g. calls fanned out on OkHttp's dispatcher, so no
+     * NetworkExecutor thread sits waiting for it. Calls done exactly once, from any thread,
+     * with null on failure; calls it makes are cancelled with the connection.
+     */
+    private interface AsyncWork {
+        void start(RequestHandle connection, NetworkExecutor.ResultListener<String> done);
+    }
 
-                        return countryInfo.toString();
-                    }
+    // Wires up the on-disk response cache, offline knowledge index and circuit breakers; safe to call more than once
+    public static void initialize(Context context) {
+        ResponseCache.init(context);
+        CircuitBreakers.init(context);
+        KnowledgeIndex.init(context);
+    }
 
-                } catch (Exception e) {
-                    Log.e(TAG, "Country search error", e);
+    /**
+     * Records answers delivered to the caller in the knowledge index. Speculative lookups are
+     * not recorded, since their query may be a partial transcript; a held result is recorded
+     * when the final lookup picks it up.
+     */
+    private static NetworkCallback recordingKnowledge(String term, KnowledgeIndex.Source source, NetworkCallback callback) {
+        KnowledgeIndex index = KnowledgeIndex.getInstance();
+        if (index == null || callback == PREFETCH) {
+            return callback;
+        }
+        return new NetworkCallback() {
+            @Override
+            public void onSuccess(String result) {
+                // Appends to the journal, so off the main thread
+                NetworkExecutor.getInstance().submit("KnowledgeIndex record", () -> {
+                    index.record(term, source, result);
                     return null;
-                }
-                return null;
+                }, ignored -> { });
+                callback.onSuccess(result);
             }
 
             @Override
-            protected void onPostExecute(String result) {
-                if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to fetch country information");
-                }
+            public void onError(String error) {
+                callback.onError(error);
             }
-        }.execute(countryName);
+        };
     }
 
-    public static void getRandomJoke(NetworkCallback callback) {
-        new AsyncTask<Void, Void, String>() {
-            @Override
-            protected String doInBackground(Void... params) {
-                try {
-                    URL url = new URL(JOKES_API);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
-
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    connection.disconnect();
+    /**
+     * Runs a lookup on the shared network pool; a null result is reported as the error message.
+     * Identical lookups (same endpoint and normalized query) that arrive while one is in flight
+     * share its network call and all receive its result. Cancelling the returned handle stops
+     * delivery to this caller, and aborts the call once no other caller is waiting on it.
+     */
+    private static RequestHandle execute(String name, ApiEndpoint endpoint, String query, Callable<String> work,
+                                         String errorMessage, NetworkCallback callback) {
+        return execute(name, endpoint, query, onPool(name, work), errorMessage, callback);
+    }
 
-                    JSONObject jsonObject = new JSONObject(response.toString());
-                    String setup = jsonObject.getString("setup");
-                    String punchline = jsonObject.getString("punchline");
+    // As above, for work that completes without holding a pool thread
+    private static RequestHandle execute(String name, ApiEndpoint endpoint, String query, AsyncWork work,
+                                         String errorMessage, NetworkCallback callback) {
+        // A dead API answers with the caller's fallback right away. Cacheable endpoints still go
+        // through the executor, where an expired cached answer may be served instead.
+        if (!endpoint.isCacheable() && isOpen(endpoint)) {
+            return failFast(errorMessage, callback);
+        }
+        return share(ResponseCache.keyFor(endpoint, query), work, errorMessage, callback);
+    }
 
-                    return setup + " " + punchline;
+    private static boolean isOpen(ApiEndpoint endpoint) {
+        CircuitBreakers breakers = CircuitBreakers.getInstance();
+        return breakers != null && breakers.isOpen(endpoint);
+    }
 
-                } catch (Exception e) {
-                    Log.e(TAG, "Joke fetch error", e);
-                    return null;
+    private static RequestHandle failFast(String errorMessage, NetworkCallback callback) {
+        if (callback != PREFETCH) {
+            callback.onError(errorMessage);
+        }
+        return RequestHandle.completed();
+    }
+
+    // Deduplication, prefetch hand-off and delivery for every lookup, keyed like ResponseCache entries
+    private static RequestHandle share(String key, AsyncWork work, String errorMessage, NetworkCallback callback) {
+        RequestHandle handle = new RequestHandle();
+        Prefetched prefetched;
+        synchronized (IN_FLIGHT) {
+            prefetched = PREFETCHED.remove(key);
+            if (prefetched != null && prefetched.isExpired()) {
+                prefetched = null;
+            }
+            if (prefetched != null && callback == PREFETCH) {
+                // Already fetched; keep holding it
+                PREFETCHED.put(key, prefetched);
+                return RequestHandle.completed();
+            }
+        }
+        if (prefetched != null) {
+            PREFETCH_HITS.incrementAndGet();
+            String value = prefetched.value;
+            NetworkExecutor.getInstance().postToMain(() -> {
+                if (handle.isCancelled()) return;
+                handle.complete();
+                callback.onSuccess(value);
+            });
+            return handle;
+        }
+
+        Waiter waiter = new Waiter(callback, handle);
+        InFlight flight;
+        boolean joined;
+        synchronized (IN_FLIGHT) {
+            flight = IN_FLIGHT.get(key);
+            joined = flight != null;
+            if (!joined) {
+                flight = new InFlight();
+                IN_FLIGHT.put(key, flight);
+            } else {
+                DEDUPLICATED_CALLS.incrementAndGet();
+            }
+            flight.waiting.add(waiter);
+        }
+        InFlight shared = flight;
+        handle.onCancel(() -> leave(key, shared, waiter));
+        if (joined) {
+            return handle;
+        }
+
+        work.start(shared.connection, result -> NetworkExecutor.getInstance().runOnMain(() -> {
+            List<Waiter> waiting;
+            synchronized (IN_FLIGHT) {
+                if (IN_FLIGHT.get(key) == shared) {
+                    IN_FLIGHT.remove(key);
+                }
+                waiting = new ArrayList<>(shared.waiting);
+                shared.waiting.clear();
+                if (result != null && !waiting.isEmpty() && onlyPrefetch(waiting)) {
+                    hold(key, result);
                 }
             }
-
-            @Override
-            protected void onPostExecute(String result) {
+            shared.connection.complete();
+            for (Waiter w : waiting) {
+                if (w.handle.isCancelled()) continue;
+                w.handle.complete();
                 if (result != null) {
-                    callback.onSuccess(result);
+                    w.callback.onSuccess(result);
                 } else {
-                    callback.onError("Failed to fetch joke");
+                    w.callback.onError(errorMessage);
                 }
             }
-        }.execute();
+        }));
+        return handle;
     }
 
-    public static void getCatFact(NetworkCallback callback) {
-        new AsyncTask<Void, Void, String>() {
-            @Override
-            protected String doInBackground(Void... params) {
-                try {
-                    URL url = new URL(CAT_FACTS_API);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
-
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    connection.disconnect();
+    /**
+     * Keeps an unclaimed speculative result for PREFETCH_HOLD_MS. Expired results are dropped
+     * here and by a timer, and the oldest go first beyond MAX_PREFETCHED, so results the
+     * final transcript never asks for do not pile up in the long-lived service. Hold IN_FLIGHT.
+     */
+    private static void hold(String key, String result) {
+        PREFETCHED.remove(key);
+        PREFETCHED.put(key, new Prefetched(result));
+        purgeExpiredLocked();
+        Iterator<Prefetched> oldest = PREFETCHED.values().iterator();
+        while (PREFETCHED.size() > MAX_PREFETCHED && oldest.hasNext()) {
+            oldest.next();
+            oldest.remove();
+        }
+        NetworkExecutor.getInstance().postToMainDelayed(() -> {
+            synchronized (IN_FLIGHT) {
+                purgeExpiredLocked();
+            }
+        }, PREFETCH_HOLD_MS + 1);
+    }
 
-                    JSONObject jsonObject = new JSONObject(response.toString());
-                    return "Here's a cat fact: " + jsonObject.getString("fact");
+    private static void purgeExpiredLocked() {
+        PREFETCHED.values().removeIf(Prefetched::isExpired);
+    }
 
-                } catch (Exception e) {
-                    Log.e(TAG, "Cat fact fetch error", e);
-                    return null;
-                }
+    // Blocking work on the shared pool; calls it makes through VoxHttpClient are aborted with the connection
+    private static AsyncWork onPool(String name, Callable<String> work) {
+        LatencyTracer.Trace trace = LatencyTracer.current();
+        return (connection, done) -> NetworkExecutor.getInstance().submit(name, () -> {
+            if (connection.isCancelled()) return null;
+            if (trace != null) trace.mark(LatencyTracer.Stage.NETWORK_START);
+            try {
+                return VoxHttpClient.callWithin(connection, work);
+            } finally {
+                if (trace != null) trace.mark(LatencyTracer.Stage.NETWORK_END);
             }
+        }, done);
+    }
 
-            @Override
-            protected void onPostExecute(String result) {
-                if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to fetch cat fact");
-                }
-            }
-        }.execute();
+    private interface PartsCombiner {
+        // parts[i] holds the fields of request i, or null if that call failed
+        String combine(List<Map<String, String>> parts);
     }
 
-    public static void getDogFact(NetworkCallback callback) {
-        new AsyncTask<Void, Void, String>() {
-            @Override
-            protected String doInBackground(Void... params) {
-                try {
-                    URL url = new URL(DOG_FACTS_API);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
-
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
+    /**
+     * Enqueues the requests on OkHttp's dispatcher together and combines their fields once the
+     * last one finishes, so the fan-out holds no pool thread while it waits. After deadlineMs
+     * (0 for none beyond each endpoint's call timeout) calls still running are cancelled and
+     * count as failed.
+     */
+    private static AsyncWork fanOut(ApiEndpoint[] endpoints, String[] urls, JsonFieldExtractor[] extractors,
+                                    long deadlineMs, PartsCombiner combiner) {
+        LatencyTracer.Trace trace = LatencyTracer.current();
+        return (connection, done) -> {
+            int count = endpoints.length;
+            List<Map<String, String>> parts = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                parts.add(null);
+            }
+            AtomicInteger remaining = new AtomicInteger(count);
+            List<Call> calls = new ArrayList<>(count);
+            if (trace != null) trace.mark(LatencyTracer.Stage.NETWORK_START);
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                Call call = VoxHttpClient.enqueueFields(endpoints[i], urls[i], extractors[i], fields -> {
+                    synchronized (parts) {
+                        parts.set(index, fields);
                     }
-                    reader.close();
-                    connection.disconnect();
-
-                    JSONObject jsonObject = new JSONObject(response.toString());
-                    JSONArray facts = jsonObject.getJSONArray("facts");
-                    if (facts.length() > 0) {
-                        return "Here's a dog fact: " + facts.getString(0);
+                    if (remaining.decrementAndGet() > 0) return;
+                    if (trace != null) trace.mark(LatencyTracer.Stage.NETWORK_END);
+                    String result = null;
+                    try {
+                        synchronized (parts) {
+                            result = combiner.combine(parts);
+                        }
+                    } catch (Exception e) {
+                        Log.e(TAG, "Combining " + Arrays.toString(endpoints) + " failed", e);
                     }
-
-                } catch (Exception e) {
-                    Log.e(TAG, "Dog fact fetch error", e);
-                    return null;
-                }
-                return null;
+                    done.onResult(result);
+                });
+                calls.add(call);
+                connection.onCancel(call::cancel);
             }
+            if (deadlineMs > 0) {
+                NetworkExecutor.getInstance().postToMainDelayed(() -> {
+                    for (Call call : calls) {
+                        call.cancel();
+                    }
+                }, deadlineMs);
+            }
+        };
+    }
 
-            @Override
-            protected void onPostExecute(String result) {
-                if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to fetch dog fact");
-                }
+    // A caller cancelled; the last one out aborts the network call
+    private static void leave(String key, InFlight flight, Waiter waiter) {
+        boolean abandoned;
+        synchronized (IN_FLIGHT) {
+            if (!flight.waiting.remove(waiter)) return;
+            abandoned = flight.waiting.isEmpty();
+            if (abandoned && IN_FLIGHT.get(key) == flight) {
+                IN_FLIGHT.remove(key);
             }
-        }.execute();
+        }
+        if (abandoned) {
+            ABANDONED_CALLS.incrementAndGet();
+            flight.connection.cancel();
+        }
     }
 
-    public static void getNumberFact(String number, NetworkCallback callback) {
-        new AsyncTask<String, Void, String>() {
-            @Override
-            protected String doInBackground(String... params) {
-                try {
-                    String urlString = NUMBERS_API + params[0];
-                    URL url = new URL(urlString);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
-
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    connection.disconnect();
+    private static boolean onlyPrefetch(List<Waiter> waiting) {
+        for (Waiter waiter : waiting) {
+            if (waiter.callback != PREFETCH) return false;
+        }
+        return true;
+    }
 
-                    return response.toString();
+    // Lookups that joined an identical in-flight call instead of making their own
+    public static long getDeduplicatedCallCount() {
+        return DEDUPLICATED_CALLS.get();
+    }
 
-                } catch (Exception e) {
-                    Log.e(TAG, "Number fact fetch error", e);
-                    return null;
-                }
-            }
+    // Network calls aborted because every caller waiting on them cancelled
+    public static long getAbandonedCallCount() {
+        return ABANDONED_CALLS.get();
+    }
 
-            @Override
-            protected void onPostExecute(String result) {
-                if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to fetch number fact");
+    // Drops speculative results, and aborts speculative calls, that the final transcript did not ask for
+    public static void discardPrefetched() {
+        List<Waiter> speculative = new ArrayList<>();
+        synchronized (IN_FLIGHT) {
+            PREFETCHED.clear();
+            for (InFlight flight : IN_FLIGHT.values()) {
+                if (onlyPrefetch(flight.waiting)) {
+                    speculative.addAll(flight.waiting);
                 }
             }
-        }.execute(number);
+        }
+        for (Waiter waiter : speculative) {
+            waiter.handle.cancel();
+        }
     }
 
-    public static void getRandomQuote(NetworkCallback callback) {
-        new AsyncTask<Void, Void, String>() {
-            @Override
-            protected String doInBackground(Void... params) {
-                try {
-                    URL url = new URL(QUOTABLE_API);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
-
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    connection.disconnect();
-
-                    JSONObject jsonObject = new JSONObject(response.toString());
-                    String quote = jsonObject.getString("content");
-                    String author = jsonObject.getString("author");
-
-                    return "\"" + quote + "\" - " + author;
+    // Lookups answered by a result fetched speculatively from a partial transcript
+    public static long getPrefetchHitCount() {
+        return PREFETCH_HITS.get();
+    }
 
-                } catch (Exception e) {
-                    Log.e(TAG, "Quote fetch error", e);
-                    return null;
+    /**
+     * Like execute(), but answers from ResponseCache when it can. A stale entry is served
+     * immediately and refreshed in the background.
+     */
+    private static RequestHandle executeCached(String name, ApiEndpoint endpoint, String query, Callable<String> work,
+                                               String errorMessage, NetworkCallback callback) {
+        ResponseCache cache = ResponseCache.getInstance();
+        if (cache == null || !endpoint.isCacheable()) {
+            return execute(name, endpoint, query, work, errorMessage, callback);
+        }
+
+        String key = ResponseCache.keyFor(endpoint, query);
+        ResponseCache.Entry cached = cache.getFromMemory(endpoint, key);
+        if (cached != null) {
+            if (!cached.isFresh()) {
+                revalidate(name, endpoint, key, work);
+            }
+            callback.onSuccess(cached.value);
+            return RequestHandle.completed();
+        }
+
+        return execute(name, endpoint, query, () -> {
+            ResponseCache.Entry stored = cache.getFromDisk(endpoint, key);
+            if (stored != null && stored.isUsable()) {
+                if (!stored.isFresh()) {
+                    revalidate(name, endpoint, key, work);
                 }
+                return stored.value;
             }
 
-            @Override
-            protected void onPostExecute(String result) {
-                if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to fetch quote");
-                }
+            if (stored != null && !ConnectivityMonitor.current().hasInternet()) {
+                // No point waiting for a timeout; the expired answer is all there is
+                return stored.value;
+            }
+            String result = work.call();
+            if (result != null) {
+                cache.put(endpoint, key, result);
+                return result;
             }
-        }.execute();
+            // The network failed; an expired answer is better than none
+            return stored != null ? stored.value : null;
+        }, errorMessage, callback);
     }
 
-    public static void getProgrammingQuote(NetworkCallback callback) {
-        new AsyncTask<Void, Void, String>() {
-            @Override
-            protected String doInBackground(Void... params) {
-                try {
-                    URL url = new URL(PROGRAMMING_QUOTES_API);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
-
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
+    // As above, for work that completes without holding a pool thread
+    private static RequestHandle executeCached(String name, ApiEndpoint endpoint, String query, AsyncWork work,
+                                               String errorMessage, NetworkCallback callback) {
+        ResponseCache cache = ResponseCache.getInstance();
+        if (cache == null || !endpoint.isCacheable()) {
+            return execute(name, endpoint, query, work, errorMessage, callback);
+        }
+
+        String key = ResponseCache.keyFor(endpoint, query);
+        ResponseCache.Entry cached = cache.getFromMemory(endpoint, key);
+        if (cached != null) {
+            if (!cached.isFresh()) {
+                revalidate(endpoint, key, work);
+            }
+            callback.onSuccess(cached.value);
+            return RequestHandle.completed();
+        }
+
+        return execute(name, endpoint, query, (connection, done) ->
+                NetworkExecutor.getInstance().submit(name + " disk", () -> cache.getFromDisk(endpoint, key), stored -> {
+                    if (stored != null && stored.isUsable()) {
+                        if (!stored.isFresh()) {
+                            revalidate(endpoint, key, work);
+                        }
+                        done.onResult(stored.value);
+                        return;
                     }
-                    reader.close();
-                    connection.disconnect();
-
-                    JSONObject jsonObject = new JSONObject(response.toString());
-                    String quote = jsonObject.getString("en");
-                    String author = jsonObject.getString("author");
-
-                    return "Programming Quote: \"" + quote + "\" - " + author;
+                    if (stored != null && !ConnectivityMonitor.current().hasInternet()) {
+                        done.onResult(stored.value);
+                        return;
+                    }
+                    work.start(connection, result -> {
+                        if (result != null) {
+                            // Async work completes on a worker or dispatcher thread, so this disk write stays off the main thread
+                            cache.put(endpoint, key, result);
+                            done.onResult(result);
+                        } else {
+                            done.onResult(stored != null ? stored.value : null);
+                        }
+                    });
+                }), errorMessage, callback);
+    }
 
-                } catch (Exception e) {
-                    Log.e(TAG, "Programming quote fetch error", e);
-                    return null;
+    private static void revalidate(ApiEndpoint endpoint, String key, AsyncWork work) {
+        ConnectivityMonitor.Snapshot network = ConnectivityMonitor.current();
+        if (!network.hasInternet() || network.shouldSaveData()) {
+            return;
+        }
+        if (!REVALIDATING_KEYS.add(key)) {
+            return;
+        }
+        work.start(new RequestHandle(), result -> {
+            try {
+                if (result != null) {
+                    ResponseCache.getInstance().put(endpoint, key, result);
                 }
+            } finally {
+                REVALIDATING_KEYS.remove(key);
             }
+        });
+    }
 
-            @Override
-            protected void onPostExecute(String result) {
+    private static void revalidate(String name, ApiEndpoint endpoint, String key, Callable<String> work) {
+        ConnectivityMonitor.Snapshot network = ConnectivityMonitor.current();
+        // On metered or slow links the stale answer is kept for its whole serve-stale window
+        if (!network.hasInternet() || network.shouldSaveData()) {
+            return;
+        }
+        if (!REVALIDATING_KEYS.add(key)) {
+            return;
+        }
+        NetworkExecutor.getInstance().submit(name + " revalidate", () -> {
+            try {
+                String result = work.call();
                 if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to fetch programming quote");
+                    ResponseCache.getInstance().put(endpoint, key, result);
                 }
+                return result;
+            } finally {
+                REVALIDATING_KEYS.remove(key);
             }
-        }.execute();
+        }, result -> { });
     }
 
-    public static void getTriviaQuestion(NetworkCallback callback) {
-        new AsyncTask<Void, Void, String>() {
-            @Override
-            protected String doInBackground(Void... params) {
-                try {
-                    URL url = new URL(OPEN_TRIVIA_API);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
-
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    connection.disconnect();
-
-                    JSONObject jsonObject = new JSONObject(response.toString());
-                    JSONArray results = jsonObject.getJSONArray("results");
+    public static RequestHandle searchWikipedia(String query, NetworkCallback callback) {
+        return executeCached("searchWikipedia", ApiEndpoint.WIKIPEDIA, query, () -> {
+            try {
+                String encodedQuery = URLEncoder.encode(query, "UTF-8");
+                String urlString = ApiEndpoint.WIKIPEDIA.url + encodedQuery;
 
-                    if (results.length() > 0) {
-                        JSONObject question = results.getJSONObject(0);
-                        String category = question.getString("category");
-                        String questionText = question.getString("question");
-                        String correctAnswer = question.getString("correct_answer");
-
-                        return "Trivia (" + category + "): " + questionText + "\nAnswer: " + correctAnswer;
-                    }
+                Map<String, String> fields = VoxHttpClient.fetchFields(ApiEndpoint.WIKIPEDIA, urlString, WIKIPEDIA_FIELDS);
+                // No extract is a failed lookup, so races keep waiting for other sources and
+                // the handler says nothing was found
+                return fields.get("extract");
 
-                } catch (Exception e) {
-                    Log.e(TAG, "Trivia fetch error", e);
-                    return null;
-                }
+            } catch (Exception e) {
+                Log.e(TAG, "Wikipedia search error", e);
                 return null;
             }
-
-            @Override
-            protected void onPostExecute(String result) {
-                if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to fetch trivia question");
-                }
-            }
-        }.execute();
+        }, "Failed to fetch Wikipedia information", recordingKnowledge(query, KnowledgeIndex.Source.WIKIPEDIA, callback));
     }
 
-    public static void getAdvice(NetworkCallback callback) {
-        new AsyncTask<Void, Void, String>() {
-            @Override
-            protected String doInBackground(Void... params) {
-                try {
-                    URL url = new URL(ADVICE_API);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
-
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    connection.disconnect();
+    public static RequestHandle searchCountryInfo(String countryName, NetworkCallback callback) {
+        return executeCached("searchCountryInfo", ApiEndpoint.REST_COUNTRIES, countryName, () -> {
+            try {
+                String encodedCountry = URLEncoder.encode(countryName, "UTF-8");
+                String urlString = ApiEndpoint.REST_COUNTRIES.url + encodedCountry + "?fields=" + COUNTRY_QUERY_FIELDS;
 
-                    JSONObject jsonObject = new JSONObject(response.toString());
-                    JSONObject slip = jsonObject.getJSONObject("slip");
+                Map<String, String> country = VoxHttpClient.fetchFields(ApiEndpoint.REST_COUNTRIES, urlString, COUNTRY_FIELDS);
+                String name = country.get("0.name.common");
+                if (name == null) {
+                    return null;
+                }
 
-                    return "Here's some advice: " + slip.getString("advice");
+                StringBuilder countryInfo = new StringBuilder();
+                countryInfo.append("Country: ").append(name);
 
-                } catch (Exception e) {
-                    Log.e(TAG, "Advice fetch error", e);
-                    return null;
+                if (country.containsKey("0.capital.0")) {
+                    countryInfo.append("\nCapital: ").append(country.get("0.capital.0"));
                 }
-            }
 
-            @Override
-            protected void onPostExecute(String result) {
-                if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to fetch advice");
+                if (country.containsKey("0.population")) {
+                    long population = Long.parseLong(country.get("0.population"));
+                    countryInfo.append("\nPopulation: ").append(String.format("%,d", population));
                 }
-            }
-        }.execute();
-    }
 
-    public static void getDefinition(String word, NetworkCallback callback) {
-        new AsyncTask<String, Void, String>() {
-            @Override
-            protected String doInBackground(String... params) {
-                try {
-                    String encodedWord = URLEncoder.encode(params[0], "UTF-8");
-                    String urlString = DICTIONARY_API + encodedWord;
+                if (country.containsKey("0.region")) {
+                    countryInfo.append("\nRegion: ").append(country.get("0.region"));
+                }
 
-                    URL url = new URL(urlString);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
+                if (country.containsKey("0.currencies.*.name")) {
+                    countryInfo.append("\nCurrency: ").append(country.get("0.currencies.*.name"));
+                }
 
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
+                if (country.containsKey("0.languages.*")) {
+                    countryInfo.append("\nLanguages: ").append(country.get("0.languages.*"));
+                }
 
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    connection.disconnect();
-
-                    JSONArray jsonArray = new JSONArray(response.toString());
-                    if (jsonArray.length() > 0) {
-                        JSONObject wordObj = jsonArray.getJSONObject(0);
-                        JSONArray meanings = wordObj.getJSONArray("meanings");
-
-                        if (meanings.length() > 0) {
-                            JSONObject meaning = meanings.getJSONObject(0);
-                            String partOfSpeech = meaning.getString("partOfSpeech");
-                            JSONArray definitions = meaning.getJSONArray("definitions");
-
-                            if (definitions.length() > 0) {
-                                String definition = definitions.getJSONObject(0).getString("definition");
-                                return params[0] + " (" + partOfSpeech + "): " + definition;
-                            }
-                        }
-                    }
+                return countryInfo.toString();
 
-                } catch (Exception e) {
-                    Log.e(TAG, "Definition fetch error", e);
-                    return null;
-                }
+            } catch (Exception e) {
+                Log.e(TAG, "Country search error", e);
                 return null;
             }
-
-            @Override
-            protected void onPostExecute(String result) {
-                if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to fetch definition");
-                }
-            }
-        }.execute(word);
+        }, "Failed to fetch country information", callback);
     }
 
-    // NEW METHODS - Additional APIs
-
-    public static void getHackerNewsStories(NetworkCallback callback) {
-        new AsyncTask<Void, Void, String>() {
-            @Override
-            protected String doInBackground(Void... params) {
-                try {
-                    URL url = new URL(HACKER_NEWS_API);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
-
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    connection.disconnect();
-
-                    JSONArray stories = new JSONArray(response.toString());
-                    if (stories.length() > 0) {
-                        // Get first 3 story IDs
-                        StringBuilder result = new StringBuilder("Top Tech News:\n");
-                        for (int i = 0; i < Math.min(3, stories.length()); i++) {
-                            int storyId = stories.getInt(i);
-                            result.append("• Story ID: ").append(storyId).append("\n");
-                        }
-                        return result.toString();
-                    }
-
-                } catch (Exception e) {
-                    Log.e(TAG, "Hacker News fetch error", e);
+    public static RequestHandle getRandomJoke(NetworkCallback callback) {
+        return execute("getRandomJoke", ApiEndpoint.JOKES, "", () -> {
+            try {
+                Map<String, String> joke = VoxHttpClient.fetchFields(ApiEndpoint.JOKES, JOKE_FIELDS);
+                String setup = joke.get("setup");
+                String punchline = joke.get("punchline");
+                if (setup == null || punchline == null) {
                     return null;
                 }
+
+                return setup + " " + punchline;
+
+            } catch (Exception e) {
+                Log.e(TAG, "Joke fetch error", e);
                 return null;
             }
+        }, "Failed to fetch joke", callback);
+    }
 
-            @Override
-            protected void onPostExecute(String result) {
-                if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to fetch news stories");
-                }
+    public static RequestHandle getCatFact(NetworkCallback callback) {
+        return execute("getCatFact", ApiEndpoint.CAT_FACTS, "", () -> {
+            try {
+                String fact = VoxHttpClient.fetchFields(ApiEndpoint.CAT_FACTS, CAT_FACT_FIELDS).get("fact");
+                return fact != null ? "Here's a cat fact: " + fact : null;
+
+            } catch (Exception e) {
+                Log.e(TAG, "Cat fact fetch error", e);
+                return null;
             }
-        }.execute();
+        }, "Failed to fetch cat fact", callback);
     }
 
-    public static void getCryptoRates(NetworkCallback callback) {
-        new AsyncTask<Void, Void, String>() {
-            @Override
-            protected String doInBackground(Void... params) {
-                try {
-                    URL url = new URL(CRYPTO_API);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
-
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    connection.disconnect();
+    public static RequestHandle getDogFact(NetworkCallback callback) {
+        return execute("getDogFact", ApiEndpoint.DOG_FACTS, "", () -> {
+            try {
+                String fact = VoxHttpClient.fetchFields(ApiEndpoint.DOG_FACTS, DOG_FACT_FIELDS).get("facts.0");
+                return fact != null ? "Here's a dog fact: " + fact : null;
 
-                    JSONObject jsonObject = new JSONObject(response.toString());
-                    JSONObject data = jsonObject.getJSONObject("data");
-                    JSONObject rates = data.getJSONObject("rates");
+            } catch (Exception e) {
+                Log.e(TAG, "Dog fact fetch error", e);
+                return null;
+            }
+        }, "Failed to fetch dog fact", callback);
+    }
 
-                    StringBuilder result = new StringBuilder("Crypto Exchange Rates (USD):\n");
-                    if (rates.has("BTC")) {
-                        result.append("Bitcoin: $").append(rates.getString("BTC")).append("\n");
-                    }
-                    if (rates.has("ETH")) {
-                        result.append("Ethereum: $").append(rates.getString("ETH")).append("\n");
-                    }
+    public static RequestHandle getNumberFact(String number, NetworkCallback callback) {
+        return execute("getNumberFact", ApiEndpoint.NUMBERS, number, () -> {
+            try {
+                String urlString = ApiEndpoint.NUMBERS.url + number;
+                // Plain-text endpoint
+                return VoxHttpClient.fetchString(ApiEndpoint.NUMBERS, urlString);
 
-                    return result.toString();
+            } catch (Exception e) {
+                Log.e(TAG, "Number fact fetch error", e);
+                return null;
+            }
+        }, "Failed to fetch number fact", callback);
+    }
 
-                } catch (Exception e) {
-                    Log.e(TAG, "Crypto rates fetch error", e);
+    public static RequestHandle getRandomQuote(NetworkCallback callback) {
+        return execute("getRandomQuote", ApiEndpoint.QUOTABLE, "", () -> {
+            try {
+                Map<String, String> fields = VoxHttpClient.fetchFields(ApiEndpoint.QUOTABLE, QUOTE_FIELDS);
+                String quote = fields.get("content");
+                String author = fields.get("author");
+                if (quote == null || author == null) {
                     return null;
                 }
-            }
 
-            @Override
-            protected void onPostExecute(String result) {
-                if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to fetch crypto rates");
-                }
+                return "\"" + quote + "\" - " + author;
+
+            } catch (Exception e) {
+                Log.e(TAG, "Quote fetch error", e);
+                return null;
             }
-        }.execute();
+        }, "Failed to fetch quote", callback);
     }
 
-    public static void getRandomActivity(NetworkCallback callback) {
-        new AsyncTask<Void, Void, String>() {
-            @Override
-            protected String doInBackground(Void... params) {
-                try {
-                    URL url = new URL(ACTIVITIES_API);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
-
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    connection.disconnect();
+    public static RequestHandle getProgrammingQuote(NetworkCallback callback) {
+        return execute("getProgrammingQuote", ApiEndpoint.PROGRAMMING_QUOTES, "", () -> {
+            try {
+                Map<String, String> fields = VoxHttpClient.fetchFields(ApiEndpoint.PROGRAMMING_QUOTES, PROGRAMMING_QUOTE_FIELDS);
+                String quote = fields.get("en");
+                String author = fields.get("author");
+                if (quote == null || author == null) {
+                    return null;
+                }
 
-                    JSONObject jsonObject = new JSONObject(response.toString());
-                    String activity = jsonObject.getString("activity");
-                    String type = jsonObject.getString("type");
+                return "Programming Quote: \"" + quote + "\" - " + author;
 
-                    return "Activity Suggestion (" + type + "): " + activity;
+            } catch (Exception e) {
+                Log.e(TAG, "Programming quote fetch error", e);
+                return null;
+            }
+        }, "Failed to fetch programming quote", callback);
+    }
 
-                } catch (Exception e) {
-                    Log.e(TAG, "Activity fetch error", e);
+    public static RequestHandle getTriviaQuestion(NetworkCallback callback) {
+        return execute("getTriviaQuestion", ApiEndpoint.OPEN_TRIVIA, "", () -> {
+            try {
+                Map<String, String> question = VoxHttpClient.fetchFields(ApiEndpoint.OPEN_TRIVIA, TRIVIA_FIELDS);
+                String category = question.get("results.0.category");
+                String questionText = question.get("results.0.question");
+                String correctAnswer = question.get("results.0.correct_answer");
+                if (category == null || questionText == null || correctAnswer == null) {
                     return null;
                 }
-            }
 
-            @Override
-            protected void onPostExecute(String result) {
-                if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to fetch activity suggestion");
-                }
+                return "Trivia (" + category + "): " + questionText + "\nAnswer: " + correctAnswer;
+
+            } catch (Exception e) {
+                Log.e(TAG, "Trivia fetch error", e);
+                return null;
             }
-        }.execute();
+        }, "Failed to fetch trivia question", callback);
     }
 
-    public static void getNameInfo(String name, NetworkCallback callback) {
-        new AsyncTask<String, Void, String>() {
-            @Override
-            protected String doInBackground(String... params) {
-                try {
-                    StringBuilder result = new StringBuilder("Name Analysis for ").append(params[0]).append(":\n");
-
-                    // Gender prediction
-                    URL genderUrl = new URL(GENDER_API + URLEncoder.encode(params[0], "UTF-8"));
-                    HttpURLConnection genderConn = (HttpURLConnection) genderUrl.openConnection();
-                    genderConn.setRequestMethod("GET");
-
-                    BufferedReader genderReader = new BufferedReader(new InputStreamReader(genderConn.getInputStream()));
-                    StringBuilder genderResponse = new StringBuilder();
-                    String line;
+    public static RequestHandle getAdvice(NetworkCallback callback) {
+        return execute("getAdvice", ApiEndpoint.ADVICE, "", () -> {
+            try {
+                String advice = VoxHttpClient.fetchFields(ApiEndpoint.ADVICE, ADVICE_FIELDS).get("slip.advice");
+                return advice != null ? "Here's some advice: " + advice : null;
 
-                    while ((line = genderReader.readLine()) != null) {
-                        genderResponse.append(line);
-                    }
-                    genderReader.close();
-                    genderConn.disconnect();
-
-                    JSONObject genderJson = new JSONObject(genderResponse.toString());
-                    if (genderJson.has("gender") && !genderJson.isNull("gender")) {
-                        result.append("Predicted Gender: ").append(genderJson.getString("gender"));
-                        if (genderJson.has("probability")) {
-                            result.append(" (").append(Math.round(genderJson.getDouble("probability") * 100)).append("% confidence)");
-                        }
-                        result.append("\n");
-                    }
+            } catch (Exception e) {
+                Log.e(TAG, "Advice fetch error", e);
+                return null;
+            }
+        }, "Failed to fetch advice", callback);
+    }
 
-                    return result.toString();
+    public static RequestHandle getDefinition(String word, NetworkCallback callback) {
+        return executeCached("getDefinition", ApiEndpoint.DICTIONARY, word, () -> {
+            try {
+                String encodedWord = URLEncoder.encode(word, "UTF-8");
+                String urlString = ApiEndpoint.DICTIONARY.url + encodedWord;
 
-                } catch (Exception e) {
-                    Log.e(TAG, "Name info fetch error", e);
+                Map<String, String> fields = VoxHttpClient.fetchFields(ApiEndpoint.DICTIONARY, urlString, DEFINITION_FIELDS);
+                String partOfSpeech = fields.get("0.meanings.0.partOfSpeech");
+                String definition = fields.get("0.meanings.0.definitions.0.definition");
+                if (partOfSpeech == null || definition == null) {
                     return null;
                 }
-            }
 
-            @Override
-            protected void onPostExecute(String result) {
-                if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to fetch name information");
-                }
+                return word + " (" + partOfSpeech + "): " + definition;
+
+            } catch (Exception e) {
+                Log.e(TAG, "Definition fetch error", e);
+                return null;
             }
-        }.execute(name);
+        }, "Failed to fetch definition", recordingKnowledge(word, KnowledgeIndex.Source.DICTIONARY, callback));
     }
 
-    public static void searchUniversities(String query, NetworkCallback callback) {
-        new AsyncTask<String, Void, String>() {
-            @Override
-            protected String doInBackground(String... params) {
-                try {
-                    String encodedQuery = URLEncoder.encode(params[0], "UTF-8");
-                    String urlString = UNIVERSITIES_API + encodedQuery;
-
-                    URL url = new URL(urlString);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
-
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
+    // NEW METHODS - Additional APIs
 
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    connection.disconnect();
-
-                    JSONArray universities = new JSONArray(response.toString());
-                    if (universities.length() > 0) {
-                        StringBuilder result = new StringBuilder("Universities matching '").append(params[0]).append("':\n");
-
-                        for (int i = 0; i < Math.min(3, universities.length()); i++) {
-                            JSONObject uni = universities.getJSONObject(i);
-                            result.append("• ").append(uni.getString("name"));
-                            if (uni.has("country")) {
-                                result.append(" (").append(uni.getString("country")).append(")");
-                            }
-                            result.append("\n");
-                        }
+    // Answered from the locally kept HackerNewsFeed snapshot
+    public static RequestHandle getHackerNewsStories(NetworkCallback callback) {
+        return HackerNewsFeed.getInstance().getTopStories(callback);
+    }
 
-                        return result.toString();
-                    }
+    public static RequestHandle getCryptoRates(NetworkCallback callback) {
+        ApiEndpoint[] endpoints = new ApiEndpoint[CRYPTO_SYMBOLS.length];
+        String[] urls = new String[CRYPTO_SYMBOLS.length];
+        JsonFieldExtractor[] extractors = new JsonFieldExtractor[CRYPTO_SYMBOLS.length];
+        for (int i = 0; i < CRYPTO_SYMBOLS.length; i++) {
+            endpoints[i] = ApiEndpoint.CRYPTO;
+            urls[i] = ApiEndpoint.CRYPTO.url + CRYPTO_SYMBOLS[i] + "-USD/spot";
+            extractors[i] = SPOT_PRICE_FIELDS;
+        }
+        return executeCached("getCryptoRates", ApiEndpoint.CRYPTO, "", fanOut(endpoints, urls, extractors, 0, prices -> {
+            StringBuilder result = new StringBuilder("Crypto Prices (USD):\n");
+            int found = 0;
+            for (int i = 0; i < CRYPTO_SYMBOLS.length; i++) {
+                Map<String, String> price = prices.get(i);
+                if (price == null || !price.containsKey("data.amount")) continue;
+                result.append(CRYPTO_NAMES[i]).append(": $").append(price.get("data.amount")).append("\n");
+                found++;
+            }
+            return found > 0 ? result.toString() : null;
+        }), "Failed to fetch crypto rates", callback);
+    }
 
-                } catch (Exception e) {
-                    Log.e(TAG, "Universities search error", e);
+    public static RequestHandle getRandomActivity(NetworkCallback callback) {
+        return execute("getRandomActivity", ApiEndpoint.ACTIVITIES, "", () -> {
+            try {
+                Map<String, String> fields = VoxHttpClient.fetchFields(ApiEndpoint.ACTIVITIES, ACTIVITY_FIELDS);
+                String activity = fields.get("activity");
+                String type = fields.get("type");
+                if (activity == null || type == null) {
                     return null;
                 }
+
+                return "Activity Suggestion (" + type + "): " + activity;
+
+            } catch (Exception e) {
+                Log.e(TAG, "Activity fetch error", e);
                 return null;
             }
+        }, "Failed to fetch activity suggestion", callback);
+    }
 
-            @Override
-            protected void onPostExecute(String result) {
-                if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to search universities");
+    /**
+     * Asks genderize, agify and nationalize at once and combines whatever has answered by
+     * NAME_INFO_DEADLINE_MS. Each service is gated on its own circuit breaker, so one dead
+     * API only drops its line from the analysis.
+     */
+    public static RequestHandle getNameInfo(String name, NetworkCallback callback) {
+        String errorMessage = "Failed to fetch name information";
+        String encodedName;
+        try {
+            encodedName = URLEncoder.encode(name, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            return failFast(errorMessage, callback);
+        }
+
+        List<ApiEndpoint> healthy = new ArrayList<>(NAME_PARTS.length);
+        List<JsonFieldExtractor> fields = new ArrayList<>(NAME_PARTS.length);
+        for (int i = 0; i < NAME_PARTS.length; i++) {
+            if (!isOpen(NAME_PARTS[i])) {
+                healthy.add(NAME_PARTS[i]);
+                fields.add(NAME_PART_FIELDS[i]);
+            }
+        }
+        if (healthy.isEmpty()) {
+            return failFast(errorMessage, callback);
+        }
+
+        int count = healthy.size();
+        ApiEndpoint[] endpoints = healthy.toArray(new ApiEndpoint[0]);
+        JsonFieldExtractor[] extractors = fields.toArray(new JsonFieldExtractor[0]);
+        String[] urls = new String[count];
+        for (int i = 0; i < count; i++) {
+            urls[i] = endpoints[i].url + encodedName;
+        }
+
+        AsyncWork work = fanOut(endpoints, urls, extractors, NAME_INFO_DEADLINE_MS, parts -> {
+            Map<ApiEndpoint, Map<String, String>> answered = new EnumMap<>(ApiEndpoint.class);
+            for (int i = 0; i < count; i++) {
+                if (parts.get(i) != null) {
+                    answered.put(endpoints[i], parts.get(i));
                 }
             }
-        }.execute(query);
+            if (answered.size() < count) {
+                Log.d(TAG, "Name info for " + healthy + " finished with " + answered.keySet() + " answered");
+            }
+            return formatNameInfo(name, answered);
+        });
+        // Deduplicated under a key of its own, since no single endpoint stands for the analysis
+        return share(NAME_INFO_KEY_PREFIX + ResponseCache.keyFor(ApiEndpoint.GENDER, name), work, errorMessage, callback);
     }
 
-    public static void getGitHubUserInfo(String username, NetworkCallback callback) {
-        new AsyncTask<String, Void, String>() {
-            @Override
-            protected String doInBackground(String... params) {
-                try {
-                    String urlString = GITHUB_API + URLEncoder.encode(params[0], "UTF-8");
+    private static String formatNameInfo(String name, Map<ApiEndpoint, Map<String, String>> parts) {
+        StringBuilder result = new StringBuilder("Name Analysis for ").append(name).append(":\n");
+        int found = 0;
 
-                    URL url = new URL(urlString);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
-                    connection.setRequestProperty("User-Agent", "VoxAI/1.0");
+        // Gender prediction
+        Map<String, String> gender = parts.get(ApiEndpoint.GENDER);
+        if (gender != null && gender.containsKey("gender")) {
+            result.append("Predicted Gender: ").append(gender.get("gender"));
+            if (gender.containsKey("probability")) {
+                result.append(" (").append(Math.round(Double.parseDouble(gender.get("probability")) * 100)).append("% confidence)");
+            }
+            result.append("\n");
+            found++;
+        }
+
+        // Age estimate
+        Map<String, String> age = parts.get(ApiEndpoint.AGE);
+        if (age != null && age.containsKey("age")) {
+            result.append("Estimated Age: ").append(age.get("age")).append("\n");
+            found++;
+        }
+
+        // Most likely nationality
+        Map<String, String> nationality = parts.get(ApiEndpoint.NATIONALITY);
+        if (nationality != null && nationality.containsKey("country.0.country_id")) {
+            result.append("Likely Nationality: ").append(nationality.get("country.0.country_id"));
+            if (nationality.containsKey("country.0.probability")) {
+                result.append(" (").append(Math.round(Double.parseDouble(nationality.get("country.0.probability")) * 100)).append("% confidence)");
+            }
+            result.append("\n");
+            found++;
+        }
 
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
+        return found > 0 ? result.toString() : null;
+    }
 
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    connection.disconnect();
+    public static RequestHandle searchUniversities(String query, NetworkCallback callback) {
+        return executeCached("searchUniversities", ApiEndpoint.UNIVERSITIES, query, () -> {
+            try {
+                String encodedQuery = URLEncoder.encode(query, "UTF-8");
+                String urlString = ApiEndpoint.UNIVERSITIES.url + encodedQuery;
 
-                    JSONObject user = new JSONObject(response.toString());
-                    StringBuilder result = new StringBuilder("GitHub User: ").append(user.getString("login")).append("\n");
+                Map<String, String> universities = VoxHttpClient.fetchFields(ApiEndpoint.UNIVERSITIES, urlString, UNIVERSITY_FIELDS);
+                if (!universities.containsKey("0.name")) {
+                    return null;
+                }
 
-                    if (user.has("name") && !user.isNull("name")) {
-                        result.append("Name: ").append(user.getString("name")).append("\n");
-                    }
-                    if (user.has("public_repos")) {
-                        result.append("Public Repos: ").append(user.getInt("public_repos")).append("\n");
-                    }
-                    if (user.has("followers")) {
-                        result.append("Followers: ").append(user.getInt("followers")).append("\n");
+                StringBuilder result = new StringBuilder("Universities matching '").append(query).append("':\n");
+                for (int i = 0; i < UNIVERSITY_RESULTS; i++) {
+                    String uniName = universities.get(i + ".name");
+                    if (uniName == null) {
+                        break;
                     }
-                    if (user.has("bio") && !user.isNull("bio")) {
-                        result.append("Bio: ").append(user.getString("bio")).append("\n");
+                    result.append("• ").append(uniName);
+                    if (universities.containsKey(i + ".country")) {
+                        result.append(" (").append(universities.get(i + ".country")).append(")");
                     }
-
-                    return result.toString();
-
-                } catch (Exception e) {
-                    Log.e(TAG, "GitHub user fetch error", e);
-                    return null;
+                    result.append("\n");
                 }
-            }
 
-            @Override
-            protected void onPostExecute(String result) {
-                if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to fetch GitHub user info");
-                }
+                return result.toString();
+
+            } catch (Exception e) {
+                Log.e(TAG, "Universities search error", e);
+                return null;
             }
-        }.execute(username);
+        }, "Failed to search universities", callback);
     }
 
-    public static void getRandomFact(NetworkCallback callback) {
-        new AsyncTask<Void, Void, String>() {
-            @Override
-            protected String doInBackground(Void... params) {
-                try {
-                    URL url = new URL(FACTS_API);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
-                    connection.setRequestProperty("X-Api-Key", "YOUR_API_KEY"); // Optional for api-ninjas
-
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    connection.disconnect();
-
-                    JSONArray facts = new JSONArray(response.toString());
-                    if (facts.length() > 0) {
-                        JSONObject fact = facts.getJSONObject(0);
-                        return "Random Fact: " + fact.getString("fact");
-                    }
+    public static RequestHandle getGitHubUserInfo(String username, NetworkCallback callback) {
+        return executeCached("getGitHubUserInfo", ApiEndpoint.GITHUB, username, () -> {
+            try {
+                String urlString = ApiEndpoint.GITHUB.url + URLEncoder.encode(username, "UTF-8");
 
-                } catch (Exception e) {
-                    Log.e(TAG, "Random fact fetch error", e);
+                Map<String, String> user = VoxHttpClient.fetchFields(ApiEndpoint.GITHUB, urlString, GITHUB_USER_FIELDS);
+                if (!user.containsKey("login")) {
                     return null;
                 }
-                return null;
-            }
+                StringBuilder result = new StringBuilder("GitHub User: ").append(user.get("login")).append("\n");
 
-            @Override
-            protected void onPostExecute(String result) {
-                if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to fetch random fact");
+                if (user.containsKey("name")) {
+                    result.append("Name: ").append(user.get("name")).append("\n");
+                }
+                if (user.containsKey("public_repos")) {
+                    result.append("Public Repos: ").append(user.get("public_repos")).append("\n");
+                }
+                if (user.containsKey("followers")) {
+                    result.append("Followers: ").append(user.get("followers")).append("\n");
+                }
+                if (user.containsKey("bio")) {
+                    result.append("Bio: ").append(user.get("bio")).append("\n");
                 }
-            }
-        }.execute();
-    }
 
-    public static void getRiddle(NetworkCallback callback) {
-        new AsyncTask<Void, Void, String>() {
-            @Override
-            protected String doInBackground(Void... params) {
-                try {
-                    URL url = new URL(RIDDLES_API);
-                    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-                    connection.setRequestMethod("GET");
-
-                    BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    StringBuilder response = new StringBuilder();
-                    String line;
-
-                    while ((line = reader.readLine()) != null) {
-                        response.append(line);
-                    }
-                    reader.close();
-                    connection.disconnect();
+                return result.toString();
 
-                    JSONObject riddle = new JSONObject(response.toString());
-                    String question = riddle.getString("riddle");
-                    String answer = riddle.getString("answer");
+            } catch (Exception e) {
+                Log.e(TAG, "GitHub user fetch error", e);
+                return null;
+            }
+        }, "Failed to fetch GitHub user info", callback);
+    }
 
-                    return "Riddle: " + question + "\nAnswer: " + answer;
+    public static RequestHandle getRandomFact(NetworkCallback callback) {
+        return execute("getRandomFact", ApiEndpoint.FACTS, "", () -> {
+            try {
+                Request request = VoxHttpClient.newRequest(ApiEndpoint.FACTS.url)
+                        .header("X-Api-Key", "YOUR_API_KEY") // Optional for api-ninjas
+                        .build();
+                String fact = VoxHttpClient.fetchFields(ApiEndpoint.FACTS, request, RANDOM_FACT_FIELDS).get("0.fact");
+                return fact != null ? "Random Fact: " + fact : null;
+
+            } catch (Exception e) {
+                Log.e(TAG, "Random fact fetch error", e);
+                return null;
+            }
+        }, "Failed to fetch random fact", callback);
+    }
 
-                } catch (Exception e) {
-                    Log.e(TAG, "Riddle fetch error", e);
+    public static RequestHandle getRiddle(NetworkCallback callback) {
+        return execute("getRiddle", ApiEndpoint.RIDDLES, "", () -> {
+            try {
+                Map<String, String> riddle = VoxHttpClient.fetchFields(ApiEndpoint.RIDDLES, RIDDLE_FIELDS);
+                String question = riddle.get("riddle");
+                String answer = riddle.get("answer");
+                if (question == null || answer == null) {
                     return null;
                 }
-            }
 
-            @Override
-            protected void onPostExecute(String result) {
-                if (result != null) {
-                    callback.onSuccess(result);
-                } else {
-                    callback.onError("Failed to fetch riddle");
-                }
+                return "Riddle: " + question + "\nAnswer: " + answer;
+
+            } catch (Exception e) {
+                Log.e(TAG, "Riddle fetch error", e);
+                return null;
             }
-        }.execute();
+        }, "Failed to fetch riddle", callback);
     }
 
     // Utility methods
-    public static void searchTechInfo(String query, NetworkCallback callback) {
+    public static RequestHandle searchTechInfo(String query, NetworkCallback callback) {
         // Use Wikipedia for programming and technology information
-        searchWikipedia(query + " programming technology", callback);
+        return searchWikipedia(query + " programming technology", callback);
     }
 
-    public static void getGeopoliticsInfo(String query, NetworkCallback callback) {
+    public static RequestHandle getGeopoliticsInfo(String query, NetworkCallback callback) {
         // Use Wikipedia for geopolitics information
-        searchWikipedia(query + " geopolitics politics", callback);
+        return searchWikipedia(query + " geopolitics politics", callback);
     }
 
-    public static void getPersonInfo(String personName, NetworkCallback callback) {
+    public static RequestHandle getPersonInfo(String personName, NetworkCallback callback) {
         // Use Wikipedia for person information
-        searchWikipedia(personName + " biography", callback);
+        return searchWikipedia(personName + " biography", callback);
     }
 
-    public static void getHistoryInfo(String query, NetworkCallback callback) {
+    public static RequestHandle getHistoryInfo(String query, NetworkCallback callback) {
         // Use Wikipedia for historical information
-        searchWikipedia(query + " history", callback);
+        return searchWikipedia(query + " history", callback);
     }
 
-    public static void getScienceInfo(String query, NetworkCallback callback) {
+    public static RequestHandle getScienceInfo(String query, NetworkCallback callback) {
         // Use Wikipedia for science information
-        searchWikipedia(query + " science", callback);
+        return searchWikipedia(query + " science", callback);
     }
 
     // Generic web search fallback method
-    public static void searchGeneral(String query, NetworkCallback callback) {
+    public static RequestHandle searchGeneral(String query, NetworkCallback callback) {
         // Use Wikipedia as primary source for general information
-        searchWikipedia(query, callback);
+        return searchWikipedia(query, callback);
     }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package com.nayanpote.voxnayanai;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cancellation handle for a command or lookup. Whoever starts work registers what cancelling
+ * means for it (abort an OkHttp call, drop a waiting callback, cancel a nested handle); the
+ * caller keeps the handle and cancels it when the answer is no longer wanted.
+ *
+ * Once completed or cancelled a handle keeps no references to the work it covered.
+ */
+public final class RequestHandle {
+
+    private List<Runnable> cancelActions = new ArrayList<>(2);
+    private boolean cancelled;
+
+    // Already finished; for answers produced synchronously
+    public static RequestHandle completed() {
+        RequestHandle handle = new RequestHandle();
+        handle.complete();
+        return handle;
+    }
+
+    /**
+     * Runs the action when the handle is cancelled, or right away if it already was. Ignored
+     * once the handle has completed.
+     */
+    public void onCancel(Runnable action) {
+        synchronized (this) {
+            if (cancelActions != null) {
+                cancelActions.add(action);
+                return;
+            }
+            if (!cancelled) return;
+        }
+        action.run();
+    }
+
+    // Nested work is cancelled with this handle
+    public RequestHandle track(RequestHandle child) {
+        onCancel(child::cancel);
+        return child;
+    }
+
+    public void cancel() {
+        List<Runnable> actions;
+        synchronized (this) {
+            if (cancelActions == null) return;
+            actions = cancelActions;
+            cancelActions = null;
+            cancelled = true;
+        }
+        for (Runnable action : actions) {
+            action.run();
+        }
+    }
+
+    // The work finished; later cancel() calls do nothing
+    public synchronized void complete() {
+        cancelActions = null;
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    public synchronized boolean isActive() {
+        return cancelActions != null;
+    }
+}
@@ -0,0 +1,114 @@
+package com.nayanpote.voxnayanai;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Counts the bytes each endpoint's responses take on the wire and holds them to the endpoint's
+ * maxResponseBytes. Runs as a network interceptor, below OkHttp's transparent decompression,
+ * so the counts are compressed bytes, i.e. what the radio actually received. A body that
+ * declares a larger Content-Length is refused before it is read; one that turns out larger
+ * fails once the budget is used up.
+ */
+public final class ResponseBudget {
+
+    private static final class Usage {
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+        final AtomicLong largest = new AtomicLong();
+        final AtomicLong overBudget = new AtomicLong();
+    }
+
+    private static final Map<ApiEndpoint, Usage> USAGE = new EnumMap<>(ApiEndpoint.class);
+
+    static {
+        for (ApiEndpoint endpoint : ApiEndpoint.values()) {
+            USAGE.put(endpoint, new Usage());
+        }
+    }
+
+    private ResponseBudget() {
+    }
+
+    // From the endpoint client's network interceptor
+    static Response intercept(ApiEndpoint endpoint, Interceptor.Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        ResponseBody body = response.body();
+        if (body == null) return response;
+
+        Usage usage = USAGE.get(endpoint);
+        if (body.contentLength() > endpoint.maxResponseBytes) {
+            usage.overBudget.incrementAndGet();
+            response.close();
+            throw new IOException(endpoint + " response of " + body.contentLength()
+                    + " bytes is over its " + endpoint.maxResponseBytes + " byte budget");
+        }
+
+        ForwardingSource counting = new ForwardingSource(body.source()) {
+            private long received;
+            private boolean recorded;
+
+            @Override
+            public long read(Buffer sink, long byteCount) throws IOException {
+                long read = super.read(sink, byteCount);
+                if (read > 0) {
+                    received += read;
+                    if (received > endpoint.maxResponseBytes) {
+                        usage.overBudget.incrementAndGet();
+                        throw new IOException(endpoint + " response is over its "
+                                + endpoint.maxResponseBytes + " byte budget");
+                    }
+                }
+                return read;
+            }
+
+            // Extractors often stop reading early; whatever was received up to then counts
+            @Override
+            public void close() throws IOException {
+                if (!recorded) {
+                    recorded = true;
+                    usage.calls.incrementAndGet();
+                    usage.bytes.addAndGet(received);
+                    usage.largest.accumulateAndGet(received, Math::max);
+                }
+                super.close();
+            }
+        };
+        return response.newBuilder()
+                .body(ResponseBody.create(Okio.buffer(counting), body.contentType(), body.contentLength()))
+                .build();
+    }
+
+    public static long getBytesReceived(ApiEndpoint endpoint) {
+        return USAGE.get(endpoint).bytes.get();
+    }
+
+    public static long getResponseCount(ApiEndpoint endpoint) {
+        return USAGE.get(endpoint).calls.get();
+    }
+
+    public static void dump(PrintWriter writer) {
+        writer.println("Bytes received per endpoint:");
+        for (ApiEndpoint endpoint : ApiEndpoint.values()) {
+            Usage usage = USAGE.get(endpoint);
+            long calls = usage.calls.get();
+            if (calls == 0 && usage.overBudget.get() == 0) continue;
+            writer.println("  " + endpoint + ": " + usage.bytes.get() + " bytes in " + calls + " responses"
+                    + ", average " + (calls > 0 ? usage.bytes.get() / calls : 0)
+                    + ", largest " + usage.largest.get()
+                    + ", over budget " + usage.overBudget.get()
+                    + " (budget " + endpoint.maxResponseBytes + ")");
+        }
+        writer.flush();
+    }
+}
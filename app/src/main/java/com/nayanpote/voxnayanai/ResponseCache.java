@@ -0,0 +1,311 @@
+package com.nayanpote.voxnayanai;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Two-level cache for NetworkHelper answers: a byte-bounded in-memory LRU in front of an
+ * on-disk store. Freshness and the serve-stale window come from each ApiEndpoint.
+ */
+public final class ResponseCache {
+    private static final String TAG = "ResponseCache";
+
+    private static final long MAX_MEMORY_BYTES = 256 * 1024;
+    private static final long MAX_DISK_BYTES = 4 * 1024 * 1024;
+    // Rough per-entry overhead of the map node, key and Entry object
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+    private static final String DISK_DIRECTORY = "vox_responses";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static volatile ResponseCache instance;
+
+    private final File diskDirectory;
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(32, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes = -1;
+
+    // Each tier counts its own lookups; a memory miss goes on to the disk tier
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong memoryMisses = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong diskMisses = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong memoryEvictions = new AtomicLong();
+    private final AtomicLong diskEvictions = new AtomicLong();
+
+    public static final class Entry {
+        public final String value;
+        public final long storedAt;
+        final ApiEndpoint endpoint;
+
+        Entry(ApiEndpoint endpoint, String value, long storedAt) {
+            this.endpoint = endpoint;
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+
+        public boolean isFresh() {
+            return System.currentTimeMillis() - storedAt < endpoint.freshForMs;
+        }
+
+        // Still servable while a background refresh runs
+        public boolean isUsable() {
+            return System.currentTimeMillis() - storedAt < endpoint.freshForMs + endpoint.staleForMs;
+        }
+
+        int sizeInBytes() {
+            return value.length() * 2 + ENTRY_OVERHEAD_BYTES;
+        }
+    }
+
+    private ResponseCache(File diskDirectory) {
+        this.diskDirectory = diskDirectory;
+    }
+
+    public static void init(Context context) {
+        if (instance == null) {
+            synchronized (ResponseCache.class) {
+                if (instance == null) {
+                    File directory = new File(context.getApplicationContext().getCacheDir(), DISK_DIRECTORY);
+                    instance = new ResponseCache(directory);
+                }
+            }
+        }
+    }
+
+    // Null until init() has been called with a Context
+    public static ResponseCache getInstance() {
+        return instance;
+    }
+
+    public static String keyFor(ApiEndpoint endpoint, String query) {
+        String normalized = query == null ? "" : WHITESPACE.matcher(query.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+        return endpoint.name() + ":" + normalized;
+    }
+
+    /**
+     * Memory-only lookup, cheap enough for the main thread. Returns null on a miss or when the
+     * entry is past its serve-stale window.
+     */
+    public Entry getFromMemory(ApiEndpoint endpoint, String key) {
+        synchronized (memory) {
+            Entry entry = memory.get(key);
+            if (entry != null && entry.isUsable()) {
+                memoryHits.incrementAndGet();
+                if (!entry.isFresh()) staleHits.incrementAndGet();
+                return entry;
+            }
+        }
+        memoryMisses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Disk lookup for worker threads; a usable disk entry is promoted into memory.
+     * Expired entries are still returned so callers can fall back to them when the network fails.
+     */
+    public Entry getFromDisk(ApiEndpoint endpoint, String key) {
+        File file = fileFor(key);
+        if (!file.exists()) {
+            diskMisses.incrementAndGet();
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            long storedAt = in.readLong();
+            int length = in.readInt();
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            Entry entry = new Entry(endpoint, new String(bytes, StandardCharsets.UTF_8), storedAt);
+
+            if (entry.isUsable()) {
+                diskHits.incrementAndGet();
+                if (!entry.isFresh()) staleHits.incrementAndGet();
+                file.setLastModified(System.currentTimeMillis());
+                putInMemory(key, entry);
+            } else {
+                diskMisses.incrementAndGet();
+            }
+            return entry;
+        } catch (IOException e) {
+            Log.w(TAG, "Dropping unreadable cache file " + file.getName(), e);
+            file.delete();
+            diskMisses.incrementAndGet();
+            return null;
+        }
+    }
+
+    // Stores a fresh answer in both tiers; call from a worker thread
+    public void put(ApiEndpoint endpoint, String key, String value) {
+        if (!endpoint.isCacheable() || value == null) return;
+
+        Entry entry = new Entry(endpoint, value, System.currentTimeMillis());
+        putInMemory(key, entry);
+        writeToDisk(key, entry);
+    }
+
+    private void putInMemory(String key, Entry entry) {
+        synchronized (memory) {
+            Entry previous = memory.put(key, entry);
+            if (previous != null) memoryBytes -= previous.sizeInBytes();
+            memoryBytes += entry.sizeInBytes();
+
+            Iterator<Map.Entry<String, Entry>> eldest = memory.entrySet().iterator();
+            while (memoryBytes > MAX_MEMORY_BYTES && eldest.hasNext()) {
+                Entry evicted = eldest.next().getValue();
+                eldest.remove();
+                memoryBytes -= evicted.sizeInBytes();
+                memoryEvictions.incrementAndGet();
+            }
+        }
+    }
+
+    private synchronized void writeToDisk(String key, Entry entry) {
+        if (!diskDirectory.exists() && !diskDirectory.mkdirs()) {
+            Log.w(TAG, "Cannot create " + diskDirectory);
+            return;
+        }
+        if (diskBytes < 0) {
+            diskBytes = 0;
+            File[] files = diskDirectory.listFiles();
+            if (files != null) {
+                for (File file : files) diskBytes += file.length();
+            }
+        }
+
+        File file = fileFor(key);
+        long previousLength = file.length();
+        File temp = new File(diskDirectory, file.getName() + ".tmp");
+        byte[] bytes = entry.value.getBytes(StandardCharsets.UTF_8);
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+            out.writeLong(entry.storedAt);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write cache file", e);
+            temp.delete();
+            return;
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            return;
+        }
+        diskBytes += file.length() - previousLength;
+        trimDisk();
+    }
+
+    // Least recently used files (by last-modified time) go first
+    private void trimDisk() {
+        if (diskBytes <= MAX_DISK_BYTES) return;
+
+        File[] files = diskDirectory.listFiles();
+        if (files == null) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            if (diskBytes <= MAX_DISK_BYTES) break;
+            long length = file.length();
+            if (file.delete()) {
+                diskBytes -= length;
+                diskEvictions.incrementAndGet();
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (memory) {
+            memory.clear();
+            memoryBytes = 0;
+        }
+        synchronized (this) {
+            File[] files = diskDirectory.listFiles();
+            if (files != null) {
+                for (File file : files) file.delete();
+            }
+            diskBytes = 0;
+        }
+    }
+
+    private File fileFor(String key) {
+        return new File(diskDirectory, hash(key));
+    }
+
+    private static String hash(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] bytes = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(bytes.length * 2);
+            for (byte b : bytes) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(key.hashCode());
+        }
+    }
+
+    public long getMemoryHitCount() {
+        return memoryHits.get();
+    }
+
+    public long getMemoryMissCount() {
+        return memoryMisses.get();
+    }
+
+    public long getDiskHitCount() {
+        return diskHits.get();
+    }
+
+    public long getDiskMissCount() {
+        return diskMisses.get();
+    }
+
+    public long getStaleHitCount() {
+        return staleHits.get();
+    }
+
+    public long getEvictionCount() {
+        return memoryEvictions.get() + diskEvictions.get();
+    }
+
+    public long getMemoryBytes() {
+        synchronized (memory) {
+            return memoryBytes;
+        }
+    }
+
+    private static String hitRatio(long hits, long misses) {
+        long lookups = hits + misses;
+        return lookups == 0 ? "-" : String.format(Locale.ROOT, "%.2f", (double) hits / lookups);
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseCache{memoryHits=" + getMemoryHitCount()
+                + ", memoryMisses=" + getMemoryMissCount()
+                + ", memoryHitRatio=" + hitRatio(memoryHits.get(), memoryMisses.get())
+                + ", diskHits=" + getDiskHitCount()
+                + ", diskMisses=" + getDiskMissCount()
+                + ", diskHitRatio=" + hitRatio(diskHits.get(), diskMisses.get())
+                + ", staleHits=" + getStaleHitCount()
+                + ", memoryEvictions=" + memoryEvictions.get()
+                + ", diskEvictions=" + diskEvictions.get()
+                + ", memoryBytes=" + getMemoryBytes() + "}";
+    }
+}
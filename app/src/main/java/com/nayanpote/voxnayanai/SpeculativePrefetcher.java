@@ -0,0 +1,148 @@
+package com.nayanpote.voxnayanai;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Starts network lookups while the user is still speaking. Each partial transcript is
+ * classified and turned into a Plan; once the same plan has held for STABLE_MS the lookup is
+ * started with NetworkHelper.PREFETCH as its callback. When the final transcript arrives the
+ * real lookup either joins the in-flight call or picks up the held result; if the final plan
+ * differs, the held result is discarded. A plan that replaces an earlier one while the user
+ * is still speaking cancels the earlier plan's lookups.
+ *
+ * All methods are called on the main thread, where recognizer callbacks arrive.
+ */
+public final class SpeculativePrefetcher {
+    private static final String TAG = "SpeculativePrefetcher";
+
+    // A partial has to stay unchanged this long before its lookup is started
+    private static final long STABLE_MS = 300;
+
+    public interface Planner {
+        // The lookups the handler would make for this utterance, or null when nothing is worth prefetching
+        Plan plan(Utterance utterance, IntentMatcher.Result match);
+    }
+
+    public interface Lookups {
+        // Starts the lookups with NetworkHelper.PREFETCH; cancelling the handle aborts them
+        RequestHandle start();
+    }
+
+    public static final class Plan {
+        // Identifies the intent and its slot, e.g. "INFO_QUERY:france"
+        final String key;
+        final Lookups start;
+
+        public Plan(String key, Lookups start) {
+            this.key = key;
+            this.start = start;
+        }
+    }
+
+    private final IntentMatcher matcher;
+    private final Planner planner;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private Plan pending;
+    private String startedKey;
+    private RequestHandle startedLookups;
+    private final Runnable startPending = this::startPending;
+
+    private final AtomicLong started = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    public SpeculativePrefetcher(IntentMatcher matcher, Planner planner) {
+        this.matcher = matcher;
+        this.planner = planner;
+    }
+
+    public void onPartial(String partial) {
+        Utterance utterance = Utterance.parse(partial);
+        Plan plan = utterance.isEmpty() ? null : planner.plan(utterance, matcher.classify(utterance.text()));
+        if (plan == null) {
+            mainHandler.removeCallbacks(startPending);
+            pending = null;
+            return;
+        }
+        if (pending != null && pending.key.equals(plan.key)) {
+            return;
+        }
+        // The transcript is still moving; restart the stability window
+        pending = plan;
+        mainHandler.removeCallbacks(startPending);
+        mainHandler.postDelayed(startPending, STABLE_MS);
+    }
+
+    private void startPending() {
+        Plan plan = pending;
+        pending = null;
+        if (plan == null || plan.key.equals(startedKey)) return;
+
+        // Speculative traffic is optional; skip it wherever optional traffic is skipped
+        ConnectivityMonitor.Snapshot network = ConnectivityMonitor.current();
+        if (!network.hasInternet() || network.shouldSaveData()) return;
+
+        // The transcript moved on to a different request; its earlier lookups are not wanted
+        if (startedLookups != null) {
+            startedLookups.cancel();
+            discarded.incrementAndGet();
+        }
+        startedKey = plan.key;
+        started.incrementAndGet();
+        startedLookups = plan.start.start();
+    }
+
+    /**
+     * Called with the final transcript before it is handled. A matching speculation needs no
+     * further work because NetworkHelper hands its result to the real lookup.
+     */
+    public void onFinal(Utterance utterance, IntentMatcher.Result match) {
+        mainHandler.removeCallbacks(startPending);
+        pending = null;
+        String speculated = startedKey;
+        RequestHandle lookups = startedLookups;
+        startedKey = null;
+        startedLookups = null;
+        if (speculated == null) return;
+
+        Plan plan = planner.plan(utterance, match);
+        if (plan != null && plan.key.equals(speculated)) {
+            committed.incrementAndGet();
+        } else {
+            lookups.cancel();
+            discarded.incrementAndGet();
+            NetworkHelper.discardPrefetched();
+            Log.d(TAG, "Discarded speculation " + speculated);
+        }
+    }
+
+    // Recognition ended without a usable transcript
+    public void cancel() {
+        mainHandler.removeCallbacks(startPending);
+        pending = null;
+        if (startedKey != null) {
+            startedLookups.cancel();
+            startedKey = null;
+            startedLookups = null;
+            discarded.incrementAndGet();
+            NetworkHelper.discardPrefetched();
+        }
+    }
+
+    public long getStartedCount() {
+        return started.get();
+    }
+
+    public long getCommittedCount() {
+        return committed.get();
+    }
+
+    public long getDiscardedCount() {
+        return discarded.get();
+    }
+}
@@ -0,0 +1,301 @@
+package com.nayanpote.voxnayanai;
+
+import android.content.Context;
+import android.speech.tts.TextToSpeech;
+import android.speech.tts.Voice;
+import android.util.Log;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Pre-rendered audio for sentences Vox says over and over ("Volume increased.", greetings,
+ * the wake-word acknowledgement). A sentence is rendered with synthesizeToFile once it has
+ * been spoken twice, or up front via prewarm(), and from then on is registered as an earcon
+ * so the engine plays the file instead of synthesizing again.
+ *
+ * One cache serves every TextToSpeech in the process (the activity's and the service's); each
+ * attaches an Engine. File and earcon names are derived from the voice, rate and pitch as well
+ * as the text, so audio rendered with one voice is never played for another, and files of a
+ * voice no longer in use simply age out of the LRU, which is bounded by total size. The voice
+ * can change under the app (system TTS settings, an engine falling back to another voice), so
+ * SpeechOutput re-reads it before each response. Rendering only runs while the engine's
+ * SpeechOutput is idle, since synthesis shares the engine's queue with playback.
+ *
+ * The directory is scanned on NetworkExecutor; nothing on the speaking path touches the disk
+ * beyond checking that a cached file still exists.
+ */
+public final class SpeechCache {
+    private static final String TAG = "SpeechCache";
+
+    static final String ID_PREFIX = "cache-";
+
+    private static final String CACHE_DIR = "tts_cache";
+    private static final String AUDIO_SUFFIX = ".wav";
+    private static final long MAX_CACHE_BYTES = 8 * 1024 * 1024;
+    // Long, one-off answers are not worth rendering
+    private static final int MAX_CACHED_CHARS = 160;
+    private static final int RENDER_AFTER_USES = 2;
+    private static final int MAX_TRACKED_SENTENCES = 256;
+
+    private static volatile SpeechCache instance;
+
+    private final File directory;
+
+    // File name -> size, least recently used first
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(32, 0.75f, true);
+    private long totalBytes;
+    // Keyed by file name, which covers the voice as well as the sentence
+    private final Map<String, Integer> useCounts = new HashMap<>();
+    private final ArrayDeque<Render> toRender = new ArrayDeque<>();
+    // Utterance id -> render, for the one render running at a time
+    private final Map<String, Render> rendering = new HashMap<>();
+    // False until the directory has been scanned
+    private boolean ready;
+
+    private static final class Render {
+        final String voiceKey;
+        final String sentence;
+        final String name;
+
+        Render(String voiceKey, String sentence, String name) {
+            this.voiceKey = voiceKey;
+            this.sentence = sentence;
+            this.name = name;
+        }
+    }
+
+    /**
+     * One TextToSpeech's view of the cache: the voice it currently speaks with and the earcons
+     * registered with it. Used by its SpeechOutput under that output's lock.
+     */
+    public final class Engine {
+        private final TextToSpeech tts;
+        private final float speechRate;
+        private final float pitch;
+        private final Set<String> registered = new HashSet<>();
+        private String voiceKey;
+
+        private Engine(TextToSpeech tts, float speechRate, float pitch) {
+            this.tts = tts;
+            this.speechRate = speechRate;
+            this.pitch = pitch;
+            checkVoice();
+        }
+
+        // Re-reads the engine's voice; call before each response. Asks the engine, not the disk
+        void checkVoice() {
+            Voice voice = tts.getVoice();
+            voiceKey = (voice != null ? voice.getName() : String.valueOf(tts.getDefaultEngine()))
+                    + "|" + speechRate + "|" + pitch;
+        }
+
+        // Renders these sentences as soon as the engine is idle
+        void prewarm(String... sentences) {
+            synchronized (SpeechCache.this) {
+                for (String sentence : sentences) {
+                    if (!isCacheable(sentence)) continue;
+                    String name = fileName(voiceKey, sentence);
+                    if (!entries.containsKey(name) && !isQueued(name)) {
+                        toRender.add(new Render(voiceKey, sentence, name));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Called by SpeechOutput before each sentence is queued. Returns the earcon to play in
+         * place of synthesis, or null, and counts uses so frequent sentences get rendered.
+         */
+        String earconFor(String sentence) {
+            if (!isCacheable(sentence)) return null;
+            String name = fileName(voiceKey, sentence);
+            synchronized (SpeechCache.this) {
+                if (!ready) return null;
+
+                Long size = entries.get(name);
+                if (size != null) {
+                    File file = new File(directory, name);
+                    if (file.isFile()) {
+                        if (registered.add(name)) {
+                            tts.addEarcon(name, file);
+                        }
+                        return name;
+                    }
+                    // Cleared by the system behind the cache's back; speak it normally
+                    entries.remove(name);
+                    totalBytes -= size;
+                    registered.remove(name);
+                    return null;
+                }
+
+                if (useCounts.size() >= MAX_TRACKED_SENTENCES) {
+                    useCounts.clear();
+                }
+                int uses = useCounts.merge(name, 1, Integer::sum);
+                if (uses >= RENDER_AFTER_USES && !isQueued(name)) {
+                    toRender.add(new Render(voiceKey, sentence, name));
+                }
+                return null;
+            }
+        }
+
+        // Called by SpeechOutput when nothing is queued for playback; renders one sentence in this engine's voice
+        void renderNext() {
+            synchronized (SpeechCache.this) {
+                if (!ready || !rendering.isEmpty()) return;
+                Render render = null;
+                for (Iterator<Render> iterator = toRender.iterator(); iterator.hasNext(); ) {
+                    Render candidate = iterator.next();
+                    if (candidate.voiceKey.equals(voiceKey)) {
+                        iterator.remove();
+                        render = candidate;
+                        break;
+                    }
+                }
+                if (render == null) return;
+
+                String utteranceId = ID_PREFIX + render.name;
+                rendering.put(utteranceId, render);
+                int result = tts.synthesizeToFile(render.sentence, null,
+                        new File(directory, render.name + ".tmp"), utteranceId);
+                if (result != TextToSpeech.SUCCESS) {
+                    rendering.remove(utteranceId);
+                }
+            }
+        }
+
+        /**
+         * Completion of a synthesizeToFile request, on the engine's callback thread. An
+         * interrupted render (playback flushed the engine's queue) is retried the next time
+         * an engine with the same voice is idle.
+         */
+        void onRendered(String utteranceId, boolean success, boolean interrupted) {
+            synchronized (SpeechCache.this) {
+                Render render = rendering.remove(utteranceId);
+                if (render == null) return;
+
+                File temp = new File(directory, render.name + ".tmp");
+                File target = new File(directory, render.name);
+                if (!success || temp.length() == 0 || !temp.renameTo(target)) {
+                    temp.delete();
+                    if (interrupted) {
+                        toRender.addFirst(render);
+                    }
+                    return;
+                }
+
+                useCounts.remove(render.name);
+                Long previous = entries.put(render.name, target.length());
+                totalBytes += target.length() - (previous != null ? previous : 0);
+                evict();
+            }
+        }
+    }
+
+    private SpeechCache(File directory) {
+        this.directory = directory;
+    }
+
+    public static void init(Context context) {
+        if (instance == null) {
+            synchronized (SpeechCache.class) {
+                if (instance == null) {
+                    SpeechCache cache = new SpeechCache(new File(context.getApplicationContext().getCacheDir(), CACHE_DIR));
+                    instance = cache;
+                    NetworkExecutor.getInstance().submit("SpeechCache load", () -> {
+                        cache.load();
+                        return null;
+                    }, result -> { });
+                }
+            }
+        }
+    }
+
+    // Null until init() has been called with a Context
+    public static SpeechCache getInstance() {
+        return instance;
+    }
+
+    // Call after the engine's rate and pitch are set
+    public Engine attach(TextToSpeech tts, float speechRate, float pitch) {
+        return new Engine(tts, speechRate, pitch);
+    }
+
+    private boolean isQueued(String name) {
+        for (Render render : toRender) {
+            if (render.name.equals(name)) return true;
+        }
+        for (Render render : rendering.values()) {
+            if (render.name.equals(name)) return true;
+        }
+        return false;
+    }
+
+    // On the worker pool, before any render starts, so leftover .tmp files are from a dead process
+    private void load() {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.w(TAG, "Cannot create " + directory);
+            return;
+        }
+        File[] files = directory.listFiles();
+        if (files == null) files = new File[0];
+        // Oldest first, so the LRU order survives a restart approximately
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+
+        synchronized (this) {
+            for (File file : files) {
+                // Unfinished renders, and the voice marker older versions kept here
+                if (!file.getName().endsWith(AUDIO_SUFFIX)) {
+                    file.delete();
+                    continue;
+                }
+                entries.put(file.getName(), file.length());
+                totalBytes += file.length();
+            }
+            evict();
+            ready = true;
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (totalBytes > MAX_CACHE_BYTES && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            new File(directory, entry.getKey()).delete();
+            totalBytes -= entry.getValue();
+            iterator.remove();
+        }
+    }
+
+    private static boolean isCacheable(String sentence) {
+        return sentence != null && !sentence.isEmpty() && sentence.length() <= MAX_CACHED_CHARS;
+    }
+
+    // Also used as the earcon name, so it covers the voice settings as well as the text
+    private static String fileName(String voiceKey, String sentence) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(voiceKey.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            byte[] hash = digest.digest(sentence.getBytes(StandardCharsets.UTF_8));
+            StringBuilder name = new StringBuilder(hash.length * 2 + AUDIO_SUFFIX.length());
+            for (byte b : hash) {
+                name.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return name.append(AUDIO_SUFFIX).toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
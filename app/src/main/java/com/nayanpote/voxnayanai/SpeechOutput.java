@@ -0,0 +1,278 @@
+package com.nayanpote.voxnayanai;
+
+import android.os.SystemClock;
+import android.speech.tts.TextToSpeech;
+import android.speech.tts.UtteranceProgressListener;
+import android.util.Log;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Speaks responses one sentence at a time. The first sentence is handed to the engine as soon
+ * as it is complete and the rest follow with QUEUE_ADD, so a long Wikipedia extract starts
+ * playing after one short synthesis instead of after the whole text. A Stream accepts text in
+ * pieces for answers that are still being formatted.
+ *
+ * Each speak() starts a new generation; cancelling bumps it, stops the engine and makes any
+ * stream from an older generation a no-op.
+ */
+public final class SpeechOutput {
+    private static final String TAG = "SpeechOutput";
+    private static final String ID_PREFIX = "vox-";
+    private static final int MIN_SENTENCE_CHARS = 6;
+
+    private final TextToSpeech tts;
+    // Optional; plays pre-rendered audio for frequent sentences
+    private final SpeechCache.Engine cache;
+    private final int maxInputLength = TextToSpeech.getMaxSpeechInputLength();
+
+    private int generation;
+    private int sequence;
+    // Utterance ids queued with the engine and not yet done, for the current generation
+    private final Set<String> queued = new HashSet<>();
+    private long requestedAt;
+    // Stamped with FIRST_AUDIO when the current generation starts playing
+    private LatencyTracer.Trace trace;
+    private long lastTimeToFirstAudioMs = -1;
+
+    public final class Stream {
+        private final int streamGeneration;
+        // Interrupting streams flush the engine with their first sentence
+        private final boolean interrupting;
+        private final StringBuilder buffer = new StringBuilder();
+        private boolean first = true;
+        // A short fragment waiting to be spoken with the next sentence
+        private String carried = "";
+
+        private Stream(int streamGeneration, boolean interrupting) {
+            this.streamGeneration = streamGeneration;
+            this.interrupting = interrupting;
+        }
+
+        /**
+         * Adds text; every sentence known to be complete is queued immediately. The last
+         * sentence is held back until more text arrives or finish() is called.
+         */
+        public Stream append(CharSequence text) {
+            synchronized (SpeechOutput.this) {
+                if (streamGeneration != generation) return this;
+                buffer.append(text);
+                int complete = lastCompleteSentenceEnd(buffer);
+                if (complete > 0) {
+                    enqueueSentences(buffer.substring(0, complete));
+                    buffer.delete(0, complete);
+                }
+            }
+            return this;
+        }
+
+        public void finish() {
+            synchronized (SpeechOutput.this) {
+                if (streamGeneration != generation) return;
+                enqueueSentences(buffer.toString());
+                buffer.setLength(0);
+                enqueue(carried.trim());
+                carried = "";
+            }
+        }
+
+        private void enqueueSentences(String text) {
+            List<String> sentences = new ArrayList<>();
+            carried = splitSentences(text, carried, sentences);
+            for (String sentence : sentences) {
+                enqueue(sentence);
+            }
+        }
+
+        private void enqueue(String sentence) {
+            if (sentence.isEmpty()) return;
+            if (sentence.length() > maxInputLength) {
+                sentence = sentence.substring(0, maxInputLength);
+            }
+            String utteranceId = ID_PREFIX + streamGeneration + "-" + (sequence++);
+            queued.add(utteranceId);
+            int mode = first && interrupting ? TextToSpeech.QUEUE_FLUSH : TextToSpeech.QUEUE_ADD;
+            first = false;
+            String earcon = cache != null ? cache.earconFor(sentence) : null;
+            if (earcon != null) {
+                tts.playEarcon(earcon, mode, null, utteranceId);
+            } else {
+                tts.speak(sentence, mode, null, utteranceId);
+            }
+        }
+    }
+
+    public SpeechOutput(TextToSpeech tts) {
+        this(tts, null);
+    }
+
+    public SpeechOutput(TextToSpeech tts, SpeechCache.Engine cache) {
+        this.tts = tts;
+        this.cache = cache;
+        tts.setOnUtteranceProgressListener(new UtteranceProgressListener() {
+            @Override
+            public void onStart(String utteranceId) {
+                onUtteranceStarted(utteranceId);
+            }
+
+            @Override
+            public void onDone(String utteranceId) {
+                onUtteranceFinished(utteranceId, true, false);
+            }
+
+            @Override
+            public void onError(String utteranceId) {
+                Log.w(TAG, "Utterance failed: " + utteranceId);
+                onUtteranceFinished(utteranceId, false, false);
+            }
+
+            @Override
+            public void onStop(String utteranceId, boolean interrupted) {
+                onUtteranceFinished(utteranceId, false, true);
+            }
+        });
+    }
+
+    // Renders fixed responses into the cache while nothing is being spoken
+    public synchronized void prewarm(String... texts) {
+        if (cache == null) return;
+        cache.checkVoice();
+        // Split the way speak() will, since the cache is keyed by sentence
+        List<String> sentences = new ArrayList<>();
+        for (String text : texts) {
+            String rest = splitSentences(text, "", sentences).trim();
+            if (!rest.isEmpty()) sentences.add(rest);
+        }
+        cache.prewarm(sentences.toArray(new String[0]));
+        if (queued.isEmpty()) {
+            cache.renderNext();
+        }
+    }
+
+    // Interrupts whatever is playing and speaks the text sentence by sentence
+    public void speak(String text) {
+        speak(text, null);
+    }
+
+    public void speak(String text, LatencyTracer.Trace trace) {
+        begin(trace).append(text).finish();
+    }
+
+    // Speaks the text after anything already queued
+    public void speakAfter(String text) {
+        Stream stream;
+        synchronized (this) {
+            checkVoice();
+            stream = new Stream(generation, false);
+        }
+        stream.append(text).finish();
+    }
+
+    // Interrupts whatever is playing and returns a stream for text that arrives in pieces
+    public synchronized Stream begin() {
+        return begin(null);
+    }
+
+    public synchronized Stream begin(LatencyTracer.Trace trace) {
+        cancelLocked();
+        checkVoice();
+        this.trace = trace;
+        requestedAt = SystemClock.elapsedRealtime();
+        return new Stream(generation, true);
+    }
+
+    // Cached earcons must match the voice the engine would speak with right now
+    private void checkVoice() {
+        if (cache != null) {
+            cache.checkVoice();
+        }
+    }
+
+    public synchronized void cancel() {
+        cancelLocked();
+    }
+
+    private void cancelLocked() {
+        generation++;
+        queued.clear();
+        tts.stop();
+    }
+
+    public synchronized boolean isSpeaking() {
+        return !queued.isEmpty();
+    }
+
+    // Time from the last speak() or begin() until the engine started playing, or -1
+    public synchronized long getLastTimeToFirstAudioMs() {
+        return lastTimeToFirstAudioMs;
+    }
+
+    private synchronized void onUtteranceStarted(String utteranceId) {
+        if (!queued.contains(utteranceId)) return;
+        if (requestedAt > 0) {
+            lastTimeToFirstAudioMs = SystemClock.elapsedRealtime() - requestedAt;
+            requestedAt = 0;
+            if (trace != null) {
+                trace.mark(LatencyTracer.Stage.FIRST_AUDIO);
+                trace = null;
+            }
+            Log.d(TAG, "First audio after " + lastTimeToFirstAudioMs + " ms");
+        }
+    }
+
+    private synchronized void onUtteranceFinished(String utteranceId, boolean success, boolean stopped) {
+        if (cache != null && utteranceId.startsWith(SpeechCache.ID_PREFIX)) {
+            cache.onRendered(utteranceId, success, stopped);
+        } else {
+            queued.remove(utteranceId);
+        }
+        // Synthesis shares the engine's queue, so renders only go in while nothing is playing
+        if (cache != null && queued.isEmpty()) {
+            cache.renderNext();
+        }
+    }
+
+    /**
+     * Adds the sentences of text to out, starting with the fragment carried over from the
+     * previous call, and returns the fragment to carry into the next one.
+     */
+    private static String splitSentences(String text, String carried, List<String> out) {
+        BreakIterator sentences = BreakIterator.getSentenceInstance(Locale.getDefault());
+        sentences.setText(text);
+        int start = sentences.first();
+        for (int end = sentences.next(); end != BreakIterator.DONE; start = end, end = sentences.next()) {
+            // Lines of a list ("Capital: Paris\nPopulation: ...") are spoken as separate sentences
+            for (String line : text.substring(start, end).split("\n")) {
+                String sentence = (carried + line).trim();
+                // Fragments such as "Dr." are kept with what follows instead of getting their own pause
+                carried = sentence.length() < MIN_SENTENCE_CHARS && !line.isEmpty() ? sentence + " " : "";
+                if (carried.isEmpty() && !sentence.isEmpty()) {
+                    out.add(sentence);
+                }
+            }
+        }
+        return carried;
+    }
+
+    /**
+     * End of the last sentence that is followed by the start of another one, or 0. A trailing
+     * newline also completes the text before it.
+     */
+    private static int lastCompleteSentenceEnd(CharSequence text) {
+        int length = text.length();
+        if (length == 0) return 0;
+        if (text.charAt(length - 1) == '\n') return length;
+
+        BreakIterator sentences = BreakIterator.getSentenceInstance(Locale.getDefault());
+        sentences.setText(text.toString());
+        // The final boundary is the end of the text, which may be a sentence still being written
+        int last = sentences.last();
+        int previous = sentences.previous();
+        return previous == BreakIterator.DONE || previous == last ? 0 : previous;
+    }
+}
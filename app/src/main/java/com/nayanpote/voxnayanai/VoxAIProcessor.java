@@ -6,8 +6,6 @@ import android.content.Intent;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.media.AudioManager;
-import android.net.ConnectivityManager;
-import android.net.NetworkInfo;
 import android.net.Uri;
 import android.provider.MediaStore;
 import android.text.TextUtils;
@@ -20,7 +18,21 @@ import java.util.Random;
 
 public class VoxAIProcessor {
 
+    // Compiled once for the process; classifies each utterance in a single pass
+    private static final IntentMatcher INTENT_MATCHER = IntentMatcher.compile(VoxIntent.values());
+
+    // Wikipedia starts this long after the specialised source unless that source fails first
+    private static final long INFO_HEDGE_DELAY_MS = 250;
+    // How long a specialised answer may still beat a Wikipedia answer that arrived first
+    private static final long INFO_PRECEDENCE_WINDOW_MS = 400;
+
     private Context context;
+    private final CommandRegistry registry = new CommandRegistry();
+    // Request of the command being dispatched; handlers register their lookups with it
+    private RequestHandle activeRequest;
+    private RequestHandle lastRequest;
+    private boolean supersedePrevious;
+    private final SpeculativePrefetcher speculation = new SpeculativePrefetcher(INTENT_MATCHER, this::planPrefetch);
     private String[] wakeWords = {
             "hey vox", "hi vox", "hello vox", "vox",
             "ok vox", "wake up vox", "vox wake up"
@@ -39,8 +51,71 @@ public class VoxAIProcessor {
         void onError(String error);
     }
 
+    private interface HandlerMethod {
+        boolean handle(VoxIntent intent, Utterance command, int triggerEnd, AIResponseCallback callback);
+    }
+
+    private interface QueryLookup {
+        RequestHandle lookup(String query, NetworkHelper.NetworkCallback callback);
+    }
+
+    // Background refreshes of indexed answers; the lookup itself records what it finds
+    private static final NetworkHelper.NetworkCallback KNOWLEDGE_REVALIDATION = new NetworkHelper.NetworkCallback() {
+        @Override
+        public void onSuccess(String result) { }
+
+        @Override
+        public void onError(String error) { }
+    };
+
+    /**
+     * Delivers to the caller's callback until the request is cancelled, then drops the
+     * reference so a destroyed Activity is not kept alive by lookups still in flight.
+     */
+    private static final class ScopedCallback implements AIResponseCallback {
+        private volatile AIResponseCallback delegate;
+        private final RequestHandle request;
+        private final LatencyTracer.Trace trace;
+
+        ScopedCallback(AIResponseCallback delegate, RequestHandle request, LatencyTracer.Trace trace) {
+            this.delegate = delegate;
+            this.request = request;
+            this.trace = trace;
+            request.onCancel(() -> this.delegate = null);
+        }
+
+        @Override
+        public void onResponse(String response) {
+            AIResponseCallback target = delegate;
+            if (target == null) return;
+            request.complete();
+            trace.mark(LatencyTracer.Stage.DELIVERED);
+            target.onResponse(response);
+        }
+
+        @Override
+        public void onError(String error) {
+            AIResponseCallback target = delegate;
+            if (target == null) return;
+            request.complete();
+            trace.mark(LatencyTracer.Stage.DELIVERED);
+            target.onError(error);
+        }
+    }
+
     public VoxAIProcessor(Context context) {
         this.context = context;
+        ConnectivityMonitor.init(context);
+        NetworkHelper.initialize(context);
+        AppIndex.init(context);
+        // Starts restoring the persisted news snapshot, so "news" can be answered offline
+        HackerNewsFeed.getInstance();
+        registerBuiltInHandlers();
+    }
+
+    // Fixed replies worth pre-rendering for speech
+    public String[] getGreetingResponses() {
+        return greetingResponses.clone();
     }
 
     public boolean isWakeWord(String input) {
@@ -55,251 +130,354 @@ public class VoxAIProcessor {
         return false;
     }
 
-    public void processCommand(String command, AIResponseCallback callback) {
-        if (TextUtils.isEmpty(command)) {
-            callback.onError("Empty command received");
-            return;
-        }
+    /**
+     * When enabled, starting a command cancels the previous one if it has not answered yet,
+     * so a late answer cannot overwrite a newer one.
+     */
+    public void setSupersedePrevious(boolean supersedePrevious) {
+        this.supersedePrevious = supersedePrevious;
+    }
 
-        String lowerCommand = command.toLowerCase().trim();
+    /**
+     * Handles the command and reports through the callback unless the returned handle is
+     * cancelled first; cancelling also aborts the lookups the command started. Call on the
+     * main thread.
+     */
+    public RequestHandle processCommand(String command, AIResponseCallback callback) {
+        return processCommand(command, LatencyTracer.begin(), callback);
+    }
 
-        // Handle system commands first
-        if (handleSystemCommands(lowerCommand, callback)) {
-            return;
+    // As above, continuing a trace the recognizer started at end of speech
+    public RequestHandle processCommand(String command, LatencyTracer.Trace trace, AIResponseCallback callback) {
+        if (supersedePrevious && lastRequest != null) {
+            lastRequest.cancel();
         }
+        RequestHandle request = new RequestHandle();
+        lastRequest = request;
+        AIResponseCallback scoped = new ScopedCallback(callback, request, trace);
 
-        // Handle app commands
-        if (handleAppCommands(lowerCommand, callback)) {
-            return;
+        activeRequest = request;
+        LatencyTracer.Trace previousTrace = LatencyTracer.enter(trace);
+        try {
+            dispatchCommand(command, trace, scoped);
+        } finally {
+            LatencyTracer.exit(previousTrace);
+            activeRequest = null;
         }
+        return request;
+    }
 
-        // Handle information queries with enhanced API support
-        if (handleInformationQueries(lowerCommand, callback)) {
-            return;
+    // Ties a lookup started by a handler to the command being dispatched
+    private RequestHandle track(RequestHandle lookup) {
+        if (activeRequest != null) {
+            activeRequest.track(lookup);
         }
+        return lookup;
+    }
 
-        // Handle entertainment commands
-        if (handleEntertainmentCommands(lowerCommand, callback)) {
+    private void dispatchCommand(String command, LatencyTracer.Trace trace, AIResponseCallback callback) {
+        if (TextUtils.isEmpty(command)) {
+            callback.onError("Empty command received");
             return;
         }
 
-        // Handle new API features
-        if (handleNewAPIFeatures(lowerCommand, callback)) {
-            return;
+        // One normalization pass; every handler and slot extractor reads this view
+        Utterance utterance = Utterance.parse(command);
+        IntentMatcher.Result match = INTENT_MATCHER.classify(utterance.text());
+        trace.setIntent(match.isEmpty() ? "UNKNOWN" : match.intent(0).name());
+        trace.mark(LatencyTracer.Stage.INTENT);
+        speculation.onFinal(utterance, match);
+
+        // Candidates arrive best first; each goes to its handlers by priority, and a handler
+        // may decline (e.g. "open" with no app name)
+        for (int rank = 0; rank < match.size(); rank++) {
+            VoxIntent intent = match.intent(rank);
+            for (CommandHandler handler : registry.handlersFor(intent)) {
+                if (handler.requiresNetwork(intent) && !isNetworkAvailable()) {
+                    if (intent == VoxIntent.INFO_QUERY && answerFromKnowledgeIndex(CommandSlots.extractQuery(utterance, match.end(rank)), callback)) {
+                        return;
+                    }
+                    if (intent == VoxIntent.NEWS && answerFromNewsSnapshot(callback)) {
+                        return;
+                    }
+                    callback.onResponse("Sorry, I need an internet connection to search for information.");
+                    return;
+                }
+                if (registry.dispatch(handler, intent, utterance, match.end(rank), callback)) {
+                    return;
+                }
+            }
         }
 
-        // Handle general conversation
-        handleGeneralConversation(lowerCommand, callback);
+        // Default responses for unrecognized commands
+        String[] defaultResponses = {
+                "I'm not sure I understand that. Could you please rephrase?",
+                "I didn't quite get that. Can you try saying it differently?",
+                "I'm still learning. Could you be more specific?",
+                "Sorry, I don't understand that command yet. Try asking me something else!",
+                "Hmm, I'm not sure about that. Can you ask me in a different way?"
+        };
+
+        Random random = new Random();
+        String response = defaultResponses[random.nextInt(defaultResponses.length)];
+        callback.onResponse(response);
+    }
+
+    // Partial transcripts from the recognizer; lookups for a stable partial start early
+    public void onPartialTranscript(String partial) {
+        if (TextUtils.isEmpty(partial) || isWakeWord(partial)) return;
+        speculation.onPartial(partial);
     }
 
-    private boolean handleSystemCommands(String command, AIResponseCallback callback) {
-        if (command.contains("volume up") || command.contains("increase volume")) {
-            adjustVolume(true);
-            callback.onResponse("Volume increased.");
-            return true;
-        }
+    // Recognition ended without a final transcript
+    public void cancelSpeculation() {
+        speculation.cancel();
+    }
 
-        if (command.contains("volume down") || command.contains("decrease volume") || command.contains("lower volume")) {
-            adjustVolume(false);
-            callback.onResponse("Volume decreased.");
-            return true;
+    /**
+     * Mirrors the network lookups the handlers below would make for the top-ranked intent,
+     * so a final transcript with the same plan finds them already running or finished.
+     * Only intents whose lookup is fully determined by the utterance are planned.
+     */
+    private SpeculativePrefetcher.Plan planPrefetch(Utterance utterance, IntentMatcher.Result match) {
+        if (match.isEmpty()) return null;
+        VoxIntent intent = match.intent(0);
+        switch (intent) {
+            case INFO_QUERY:
+                String query = CommandSlots.extractQuery(utterance, match.end(0));
+                if (TextUtils.isEmpty(query)) return null;
+                if (freshKnowledge(query) != null) return null;
+                return new SpeculativePrefetcher.Plan(intent + ":" + query, () -> {
+                    RequestHandle lookups = new RequestHandle();
+                    if (query.contains("country") || CommandSlots.isCountryQuery(query)) {
+                        lookups.track(NetworkHelper.searchCountryInfo(query, NetworkHelper.PREFETCH));
+                    } else if (CommandSlots.isDefinitionQuery(query)) {
+                        lookups.track(NetworkHelper.getDefinition(query, NetworkHelper.PREFETCH));
+                    }
+                    lookups.track(NetworkHelper.searchWikipedia(query, NetworkHelper.PREFETCH));
+                    return lookups;
+                });
+            case NEWS:
+                return new SpeculativePrefetcher.Plan(intent.name(),
+                        () -> NetworkHelper.getHackerNewsStories(NetworkHelper.PREFETCH));
+            case CRYPTO:
+                return new SpeculativePrefetcher.Plan(intent.name(),
+                        () -> NetworkHelper.getCryptoRates(NetworkHelper.PREFETCH));
+            case NAME_ANALYSIS:
+                String name = CommandSlots.extractNameFromCommand(utterance);
+                if (TextUtils.isEmpty(name)) return null;
+                return new SpeculativePrefetcher.Plan(intent + ":" + name,
+                        () -> NetworkHelper.getNameInfo(name, NetworkHelper.PREFETCH));
+            case UNIVERSITY:
+                String universityQuery = CommandSlots.extractUniversityQuery(utterance, match.end(0));
+                return new SpeculativePrefetcher.Plan(intent + ":" + universityQuery,
+                        () -> NetworkHelper.searchUniversities(universityQuery, NetworkHelper.PREFETCH));
+            case GITHUB:
+                String username = CommandSlots.extractGitHubUsername(utterance);
+                return new SpeculativePrefetcher.Plan(intent + ":" + username,
+                        () -> NetworkHelper.getGitHubUserInfo(username, NetworkHelper.PREFETCH));
+            default:
+                return null;
         }
+    }
 
-        if (command.contains("what time") || command.contains("current time") || command.contains("time is")) {
-            String currentTime = getCurrentTime();
-            callback.onResponse("The current time is " + currentTime);
-            return true;
-        }
+    private void registerBuiltInHandlers() {
+        registry.register(builtIn("system", (intent, command, triggerEnd, callback) -> handleSystemCommand(intent, callback),
+                VoxIntent.VOLUME_UP, VoxIntent.VOLUME_DOWN, VoxIntent.TIME, VoxIntent.DATE,
+                VoxIntent.BATTERY, VoxIntent.NETWORK_STATUS));
+        registry.register(builtIn("apps", (intent, command, triggerEnd, callback) -> handleAppCommand(intent, command, callback),
+                VoxIntent.APP_LAUNCH, VoxIntent.MUSIC, VoxIntent.CAMERA, VoxIntent.DIALER,
+                VoxIntent.CALCULATOR, VoxIntent.BROWSER));
+        registry.register(builtIn("information", this::handleInformationQuery,
+                VoxIntent.INFO_QUERY, VoxIntent.WEATHER, VoxIntent.NEWS));
+        registry.register(builtIn("entertainment", (intent, command, triggerEnd, callback) -> handleEntertainmentCommand(intent, command, callback),
+                VoxIntent.JOKE, VoxIntent.CAT_FACT, VoxIntent.DOG_FACT, VoxIntent.NUMBER_FACT, VoxIntent.QUOTE,
+                VoxIntent.PROGRAMMING_QUOTE, VoxIntent.TRIVIA, VoxIntent.ADVICE, VoxIntent.RIDDLE,
+                VoxIntent.ACTIVITY, VoxIntent.DICE, VoxIntent.COIN));
+        registry.register(builtIn("api", this::handleNewAPIFeature,
+                VoxIntent.CRYPTO, VoxIntent.NAME_ANALYSIS, VoxIntent.UNIVERSITY, VoxIntent.GITHUB,
+                VoxIntent.RANDOM_FACT));
+        registry.register(builtIn("conversation", (intent, command, triggerEnd, callback) -> handleGeneralConversation(intent, callback),
+                VoxIntent.GREETING, VoxIntent.HOW_ARE_YOU, VoxIntent.CAPABILITIES, VoxIntent.THANKS,
+                VoxIntent.GOODBYE, VoxIntent.IDENTITY, VoxIntent.CREATOR, VoxIntent.AFFECTION));
+    }
 
-        if (command.contains("what date") || command.contains("today's date") || command.contains("current date")) {
-            String currentDate = getCurrentDate();
-            callback.onResponse("Today is " + currentDate);
-            return true;
-        }
+    private static CommandHandler builtIn(String name, HandlerMethod method, VoxIntent first, VoxIntent... rest) {
+        return new CommandHandler(name, CommandHandler.DEFAULT_PRIORITY, first, rest) {
+            @Override
+            public boolean handle(VoxIntent intent, Utterance utterance, int triggerEnd, AIResponseCallback callback) {
+                return method.handle(intent, utterance, triggerEnd, callback);
+            }
+        };
+    }
 
-        if (command.contains("battery") || command.contains("battery level")) {
-            String batteryInfo = getBatteryInfo();
-            callback.onResponse(batteryInfo);
-            return true;
-        }
+    // Routing table and per-handler counters; other components may register extra handlers
+    public CommandRegistry getCommandRegistry() {
+        return registry;
+    }
 
-        if (command.contains("wifi") || command.contains("internet") || command.contains("connection")) {
-            String networkInfo = getNetworkInfo();
-            callback.onResponse(networkInfo);
-            return true;
+    private boolean handleSystemCommand(VoxIntent intent, AIResponseCallback callback) {
+        switch (intent) {
+            case VOLUME_UP:
+                adjustVolume(true);
+                callback.onResponse("Volume increased.");
+                return true;
+            case VOLUME_DOWN:
+                adjustVolume(false);
+                callback.onResponse("Volume decreased.");
+                return true;
+            case TIME:
+                String currentTime = getCurrentTime();
+                callback.onResponse("The current time is " + currentTime);
+                return true;
+            case DATE:
+                String currentDate = getCurrentDate();
+                callback.onResponse("Today is " + currentDate);
+                return true;
+            case BATTERY:
+                String batteryInfo = getBatteryInfo();
+                callback.onResponse(batteryInfo);
+                return true;
+            case NETWORK_STATUS:
+                String networkInfo = getNetworkInfo();
+                callback.onResponse(networkInfo);
+                return true;
+            default:
+                return false;
         }
-
-        return false;
     }
 
-    private boolean handleAppCommands(String command, AIResponseCallback callback) {
-        if (command.contains("open") || command.contains("launch") || command.contains("start")) {
-            String appName = extractAppName(command);
-            if (!TextUtils.isEmpty(appName)) {
+    private boolean handleAppCommand(VoxIntent intent, Utterance command, AIResponseCallback callback) {
+        switch (intent) {
+            case APP_LAUNCH:
+                String appName = CommandSlots.extractAppName(command);
+                if (TextUtils.isEmpty(appName)) {
+                    return false;
+                }
                 if (openApp(appName)) {
                     callback.onResponse("Opening " + appName + ".");
                 } else {
                     callback.onResponse("Sorry, I couldn't find or open " + appName + ".");
                 }
                 return true;
-            }
-        }
-
-        if (command.contains("play music") || command.contains("music") || command.contains("songs")) {
-            openMusicApp();
-            callback.onResponse("Opening music player.");
-            return true;
-        }
-
-        if (command.contains("camera") || command.contains("take photo") || command.contains("take picture")) {
-            openCamera();
-            callback.onResponse("Opening camera.");
-            return true;
-        }
-
-        if (command.contains("call") || command.contains("phone") || command.contains("dial")) {
-            openDialer();
-            callback.onResponse("Opening phone dialer.");
-            return true;
-        }
-
-        if (command.contains("calculator") || command.contains("calculate")) {
-            openCalculator();
-            callback.onResponse("Opening calculator.");
-            return true;
-        }
-
-        if (command.contains("browser") || command.contains("internet") || command.contains("chrome") || command.contains("firefox")) {
-            openBrowser();
-            callback.onResponse("Opening web browser.");
-            return true;
+            case MUSIC:
+                openMusicApp();
+                callback.onResponse("Opening music player.");
+                return true;
+            case CAMERA:
+                openCamera();
+                callback.onResponse("Opening camera.");
+                return true;
+            case DIALER:
+                openDialer();
+                callback.onResponse("Opening phone dialer.");
+                return true;
+            case CALCULATOR:
+                openCalculator();
+                callback.onResponse("Opening calculator.");
+                return true;
+            case BROWSER:
+                openBrowser();
+                callback.onResponse("Opening web browser.");
+                return true;
+            default:
+                return false;
         }
-
-        return false;
     }
 
-    private boolean handleInformationQueries(String command, AIResponseCallback callback) {
-        if (!isNetworkAvailable()) {
-            callback.onResponse("Sorry, I need an internet connection to search for information.");
-            return true;
-        }
-
-        if (command.contains("what is") || command.contains("tell me about") ||
-                command.contains("define") || command.contains("explain") || command.contains("who is")) {
-
-            String query = extractQuery(command);
-            if (!TextUtils.isEmpty(query)) {
-                if (query.contains("country") || isCountryQuery(query)) {
-                    NetworkHelper.searchCountryInfo(query, new NetworkHelper.NetworkCallback() {
-                        @Override
-                        public void onSuccess(String result) {
-                            callback.onResponse(result);
-                        }
-
-                        @Override
-                        public void onError(String error) {
-                            // Fallback to Wikipedia
-                            searchWikipediaInfo(query, callback);
-                        }
-                    });
-                } else if (isDefinitionQuery(query)) {
-                    NetworkHelper.getDefinition(query, new NetworkHelper.NetworkCallback() {
-                        @Override
-                        public void onSuccess(String result) {
-                            callback.onResponse(result);
-                        }
-
-                        @Override
-                        public void onError(String error) {
-                            searchWikipediaInfo(query, callback);
-                        }
-                    });
+    private boolean handleInformationQuery(VoxIntent intent, Utterance command, int triggerEnd, AIResponseCallback callback) {
+        switch (intent) {
+            case INFO_QUERY:
+                String query = CommandSlots.extractQuery(command, triggerEnd);
+                if (TextUtils.isEmpty(query)) {
+                    return false;
+                }
+                // A fresh answer seen before is served on-device without a round trip
+                if (answerFromFreshKnowledge(query, callback)) {
+                    return true;
+                }
+                if (query.contains("country") || CommandSlots.isCountryQuery(query)) {
+                    raceInformationSources(query, "country", NetworkHelper::searchCountryInfo, callback);
+                } else if (CommandSlots.isDefinitionQuery(query)) {
+                    raceInformationSources(query, "dictionary", NetworkHelper::getDefinition, callback);
                 } else {
                     searchWikipediaInfo(query, callback);
                 }
                 return true;
-            }
-        }
-
-        if (command.contains("weather") || command.contains("temperature")) {
-            callback.onResponse("For accurate weather information, I recommend checking your weather app or asking me to open it. Weather services require location access which I don't currently have.");
-            return true;
-        }
-
-        if (command.contains("news") || command.contains("latest news") || command.contains("tech news")) {
-            NetworkHelper.getHackerNewsStories(new NetworkHelper.NetworkCallback() {
-                @Override
-                public void onSuccess(String result) {
-                    callback.onResponse(result);
-                }
+            case WEATHER:
+                callback.onResponse("For accurate weather information, I recommend checking your weather app or asking me to open it. Weather services require location access which I don't currently have.");
+                return true;
+            case NEWS:
+                track(NetworkHelper.getHackerNewsStories(new NetworkHelper.NetworkCallback() {
+                    @Override
+                    public void onSuccess(String result) {
+                        callback.onResponse(result);
+                    }
 
-                @Override
-                public void onError(String error) {
-                    callback.onResponse("For the latest news, I can open your news app. Would you like me to do that?");
-                }
-            });
-            return true;
+                    @Override
+                    public void onError(String error) {
+                        callback.onResponse("For the latest news, I can open your news app. Would you like me to do that?");
+                    }
+                }));
+                return true;
+            default:
+                return false;
         }
-
-        return false;
     }
 
-    private boolean handleEntertainmentCommands(String command, AIResponseCallback callback) {
-        if (command.contains("tell me a joke") || command.contains("joke") || command.contains("funny")) {
-            NetworkHelper.getRandomJoke(new NetworkHelper.NetworkCallback() {
-                @Override
-                public void onSuccess(String result) {
-                    callback.onResponse(result);
-                }
-
-                @Override
-                public void onError(String error) {
-                    String[] jokes = {
-                            "Why don't scientists trust atoms? Because they make up everything!",
-                            "Why did the AI go to therapy? It had too many deep learning issues!",
-                            "What do you call a robot that takes the long way around? R2-Detour!"
-                    };
-                    Random random = new Random();
-                    callback.onResponse(jokes[random.nextInt(jokes.length)]);
-                }
-            });
-            return true;
-        }
-
-        if (command.contains("cat fact") || command.contains("tell me about cats")) {
-            NetworkHelper.getCatFact(new NetworkHelper.NetworkCallback() {
-                @Override
-                public void onSuccess(String result) {
-                    callback.onResponse(result);
-                }
+    private boolean handleEntertainmentCommand(VoxIntent intent, Utterance command, AIResponseCallback callback) {
+        switch (intent) {
+            case JOKE:
+                track(NetworkHelper.getRandomJoke(new NetworkHelper.NetworkCallback() {
+                    @Override
+                    public void onSuccess(String result) {
+                        callback.onResponse(result);
+                    }
 
-                @Override
-                public void onError(String error) {
-                    callback.onResponse("Here's a cat fact: Cats spend 70% of their lives sleeping, which is 13-16 hours a day.");
-                }
-            });
-            return true;
-        }
+                    @Override
+                    public void onError(String error) {
+                        String[] jokes = {
+                                "Why don't scientists trust atoms? Because they make up everything!",
+                                "Why did the AI go to therapy? It had too many deep learning issues!",
+                                "What do you call a robot that takes the long way around? R2-Detour!"
+                        };
+                        Random random = new Random();
+                        callback.onResponse(jokes[random.nextInt(jokes.length)]);
+                    }
+                }));
+                return true;
+            case CAT_FACT:
+                track(NetworkHelper.getCatFact(new NetworkHelper.NetworkCallback() {
+                    @Override
+                    public void onSuccess(String result) {
+                        callback.onResponse(result);
+                    }
 
-        if (command.contains("dog fact") || command.contains("tell me about dogs")) {
-            NetworkHelper.getDogFact(new NetworkHelper.NetworkCallback() {
-                @Override
-                public void onSuccess(String result) {
-                    callback.onResponse(result);
-                }
+                    @Override
+                    public void onError(String error) {
+                        callback.onResponse("Here's a cat fact: Cats spend 70% of their lives sleeping, which is 13-16 hours a day.");
+                    }
+                }));
+                return true;
+            case DOG_FACT:
+                track(NetworkHelper.getDogFact(new NetworkHelper.NetworkCallback() {
+                    @Override
+                    public void onSuccess(String result) {
+                        callback.onResponse(result);
+                    }
 
-                @Override
-                public void onError(String error) {
-                    callback.onResponse("Here's a dog fact: Dogs have an exceptional sense of smell with over 300 million olfactory receptors.");
+                    @Override
+                    public void onError(String error) {
+                        callback.onResponse("Here's a dog fact: Dogs have an exceptional sense of smell with over 300 million olfactory receptors.");
+                    }
+                }));
+                return true;
+            case NUMBER_FACT:
+                String number = CommandSlots.extractNumber(command);
+                if (number == null) {
+                    return false;
                 }
-            });
-            return true;
-        }
-
-        if (command.contains("number") && (command.contains("fact") || command.contains("trivia"))) {
-            String number = extractNumber(command);
-            if (number != null) {
-                NetworkHelper.getNumberFact(number, new NetworkHelper.NetworkCallback() {
+                track(NetworkHelper.getNumberFact(number, new NetworkHelper.NetworkCallback() {
                     @Override
                     public void onSuccess(String result) {
                         callback.onResponse(result);
@@ -309,144 +487,128 @@ public class VoxAIProcessor {
                     public void onError(String error) {
                         callback.onResponse("I couldn't fetch a fact about that number right now.");
                     }
-                });
+                }));
                 return true;
-            }
-        }
-
-        if (command.contains("quote") || command.contains("inspire me") || command.contains("motivation")) {
-            NetworkHelper.getRandomQuote(new NetworkHelper.NetworkCallback() {
-                @Override
-                public void onSuccess(String result) {
-                    callback.onResponse(result);
-                }
-
-                @Override
-                public void onError(String error) {
-                    String[] quotes = {
-                            "\"The only way to do great work is to love what you do.\" - Steve Jobs",
-                            "\"Innovation distinguishes between a leader and a follower.\" - Steve Jobs",
-                            "\"The future belongs to those who believe in the beauty of their dreams.\" - Eleanor Roosevelt"
-                    };
-                    Random random = new Random();
-                    callback.onResponse(quotes[random.nextInt(quotes.length)]);
-                }
-            });
-            return true;
-        }
-
-        if (command.contains("programming quote") || command.contains("coding quote")) {
-            NetworkHelper.getProgrammingQuote(new NetworkHelper.NetworkCallback() {
-                @Override
-                public void onSuccess(String result) {
-                    callback.onResponse(result);
-                }
-
-                @Override
-                public void onError(String error) {
-                    callback.onResponse("\"Programs must be written for people to read, and only incidentally for machines to execute.\" - Harold Abelson");
-                }
-            });
-            return true;
-        }
-
-        if (command.contains("trivia") || command.contains("quiz") || command.contains("question")) {
-            NetworkHelper.getTriviaQuestion(new NetworkHelper.NetworkCallback() {
-                @Override
-                public void onSuccess(String result) {
-                    callback.onResponse(result);
-                }
-
-                @Override
-                public void onError(String error) {
-                    callback.onResponse("Here's a trivia question: What is the largest planet in our solar system? Answer: Jupiter");
-                }
-            });
-            return true;
-        }
-
-        if (command.contains("advice") || command.contains("suggestion")) {
-            NetworkHelper.getAdvice(new NetworkHelper.NetworkCallback() {
-                @Override
-                public void onSuccess(String result) {
-                    callback.onResponse(result);
-                }
-
-                @Override
-                public void onError(String error) {
-                    callback.onResponse("Here's some advice: Always believe in yourself and keep moving forward, no matter the obstacles.");
-                }
-            });
-            return true;
-        }
+            case QUOTE:
+                track(NetworkHelper.getRandomQuote(new NetworkHelper.NetworkCallback() {
+                    @Override
+                    public void onSuccess(String result) {
+                        callback.onResponse(result);
+                    }
 
-        if (command.contains("riddle") || command.contains("puzzle")) {
-            NetworkHelper.getRiddle(new NetworkHelper.NetworkCallback() {
-                @Override
-                public void onSuccess(String result) {
-                    callback.onResponse(result);
-                }
+                    @Override
+                    public void onError(String error) {
+                        String[] quotes = {
+                                "\"The only way to do great work is to love what you do.\" - Steve Jobs",
+                                "\"Innovation distinguishes between a leader and a follower.\" - Steve Jobs",
+                                "\"The future belongs to those who believe in the beauty of their dreams.\" - Eleanor Roosevelt"
+                        };
+                        Random random = new Random();
+                        callback.onResponse(quotes[random.nextInt(quotes.length)]);
+                    }
+                }));
+                return true;
+            case PROGRAMMING_QUOTE:
+                track(NetworkHelper.getProgrammingQuote(new NetworkHelper.NetworkCallback() {
+                    @Override
+                    public void onSuccess(String result) {
+                        callback.onResponse(result);
+                    }
 
-                @Override
-                public void onError(String error) {
-                    callback.onResponse("Here's a riddle: I speak without a mouth and hear without ears. What am I? Answer: An echo");
-                }
-            });
-            return true;
-        }
+                    @Override
+                    public void onError(String error) {
+                        callback.onResponse("\"Programs must be written for people to read, and only incidentally for machines to execute.\" - Harold Abelson");
+                    }
+                }));
+                return true;
+            case TRIVIA:
+                track(NetworkHelper.getTriviaQuestion(new NetworkHelper.NetworkCallback() {
+                    @Override
+                    public void onSuccess(String result) {
+                        callback.onResponse(result);
+                    }
 
-        if (command.contains("activity") || command.contains("bored") || command.contains("what to do")) {
-            NetworkHelper.getRandomActivity(new NetworkHelper.NetworkCallback() {
-                @Override
-                public void onSuccess(String result) {
-                    callback.onResponse(result);
-                }
+                    @Override
+                    public void onError(String error) {
+                        callback.onResponse("Here's a trivia question: What is the largest planet in our solar system? Answer: Jupiter");
+                    }
+                }));
+                return true;
+            case ADVICE:
+                track(NetworkHelper.getAdvice(new NetworkHelper.NetworkCallback() {
+                    @Override
+                    public void onSuccess(String result) {
+                        callback.onResponse(result);
+                    }
 
-                @Override
-                public void onError(String error) {
-                    callback.onResponse("Activity suggestion: Try reading a book or going for a walk to refresh your mind.");
-                }
-            });
-            return true;
-        }
+                    @Override
+                    public void onError(String error) {
+                        callback.onResponse("Here's some advice: Always believe in yourself and keep moving forward, no matter the obstacles.");
+                    }
+                }));
+                return true;
+            case RIDDLE:
+                track(NetworkHelper.getRiddle(new NetworkHelper.NetworkCallback() {
+                    @Override
+                    public void onSuccess(String result) {
+                        callback.onResponse(result);
+                    }
 
-        if (command.contains("roll dice") || command.contains("dice roll") || command.contains("random number")) {
-            Random random = new Random();
-            int dice = random.nextInt(6) + 1;
-            callback.onResponse("I rolled a " + dice + " for you!");
-            return true;
-        }
+                    @Override
+                    public void onError(String error) {
+                        callback.onResponse("Here's a riddle: I speak without a mouth and hear without ears. What am I? Answer: An echo");
+                    }
+                }));
+                return true;
+            case ACTIVITY:
+                track(NetworkHelper.getRandomActivity(new NetworkHelper.NetworkCallback() {
+                    @Override
+                    public void onSuccess(String result) {
+                        callback.onResponse(result);
+                    }
 
-        if (command.contains("flip coin") || command.contains("coin flip") || command.contains("heads or tails")) {
-            Random random = new Random();
-            String result = random.nextBoolean() ? "Heads" : "Tails";
-            callback.onResponse("The coin landed on " + result + "!");
-            return true;
+                    @Override
+                    public void onError(String error) {
+                        callback.onResponse("Activity suggestion: Try reading a book or going for a walk to refresh your mind.");
+                    }
+                }));
+                return true;
+            case DICE:
+                Random diceRandom = new Random();
+                int dice = diceRandom.nextInt(6) + 1;
+                callback.onResponse("I rolled a " + dice + " for you!");
+                return true;
+            case COIN:
+                Random coinRandom = new Random();
+                String result = coinRandom.nextBoolean() ? "Heads" : "Tails";
+                callback.onResponse("The coin landed on " + result + "!");
+                return true;
+            default:
+                return false;
         }
-
-        return false;
     }
 
-    private boolean handleNewAPIFeatures(String command, AIResponseCallback callback) {
-        if (command.contains("crypto") || command.contains("bitcoin") || command.contains("cryptocurrency")) {
-            NetworkHelper.getCryptoRates(new NetworkHelper.NetworkCallback() {
-                @Override
-                public void onSuccess(String result) {
-                    callback.onResponse(result);
-                }
+    private boolean handleNewAPIFeature(VoxIntent intent, Utterance command, int triggerEnd, AIResponseCallback callback) {
+        switch (intent) {
+            case CRYPTO:
+                track(NetworkHelper.getCryptoRates(new NetworkHelper.NetworkCallback() {
+                    @Override
+                    public void onSuccess(String result) {
+                        callback.onResponse(result);
+                    }
 
-                @Override
-                public void onError(String error) {
-                    callback.onResponse("I couldn't fetch crypto rates right now. Try checking a crypto app.");
+                    @Override
+                    public void onError(String error) {
+                        callback.onResponse("I couldn't fetch crypto rates right now. Try checking a crypto app.");
+                    }
+                }));
+                return true;
+            case NAME_ANALYSIS:
+                String name = CommandSlots.extractNameFromCommand(command);
+                if (TextUtils.isEmpty(name)) {
+                    return false;
                 }
-            });
-            return true;
-        }
-
-        if (command.contains("name") && (command.contains("analyze") || command.contains("predict") || command.contains("tell me about my name"))) {
-            String name = extractNameFromCommand(command);
-            if (!TextUtils.isEmpty(name)) {
-                NetworkHelper.getNameInfo(name, new NetworkHelper.NetworkCallback() {
+                track(NetworkHelper.getNameInfo(name, new NetworkHelper.NetworkCallback() {
                     @Override
                     public void onSuccess(String result) {
                         callback.onResponse(result);
@@ -456,15 +618,11 @@ public class VoxAIProcessor {
                     public void onError(String error) {
                         callback.onResponse("I couldn't analyze that name right now.");
                     }
-                });
+                }));
                 return true;
-            }
-        }
-
-        if (command.contains("university") || command.contains("college") || command.contains("search university")) {
-            String query = extractUniversityQuery(command);
-            if (!TextUtils.isEmpty(query)) {
-                NetworkHelper.searchUniversities(query, new NetworkHelper.NetworkCallback() {
+            case UNIVERSITY:
+                String query = CommandSlots.extractUniversityQuery(command, triggerEnd);
+                track(NetworkHelper.searchUniversities(query, new NetworkHelper.NetworkCallback() {
                     @Override
                     public void onSuccess(String result) {
                         callback.onResponse(result);
@@ -474,15 +632,11 @@ public class VoxAIProcessor {
                     public void onError(String error) {
                         callback.onResponse("I couldn't search universities right now.");
                     }
-                });
+                }));
                 return true;
-            }
-        }
-
-        if (command.contains("github") || command.contains("git hub")) {
-            String username = extractGitHubUsername(command);
-            if (!TextUtils.isEmpty(username)) {
-                NetworkHelper.getGitHubUserInfo(username, new NetworkHelper.NetworkCallback() {
+            case GITHUB:
+                String username = CommandSlots.extractGitHubUsername(command);
+                track(NetworkHelper.getGitHubUserInfo(username, new NetworkHelper.NetworkCallback() {
                     @Override
                     public void onSuccess(String result) {
                         callback.onResponse(result);
@@ -492,117 +646,159 @@ public class VoxAIProcessor {
                     public void onError(String error) {
                         callback.onResponse("I couldn't fetch GitHub user information right now.");
                     }
-                });
+                }));
                 return true;
-            }
-        }
-
-        if (command.contains("random fact") || command.contains("interesting fact")) {
-            NetworkHelper.getRandomFact(new NetworkHelper.NetworkCallback() {
-                @Override
-                public void onSuccess(String result) {
-                    callback.onResponse(result);
-                }
+            case RANDOM_FACT:
+                track(NetworkHelper.getRandomFact(new NetworkHelper.NetworkCallback() {
+                    @Override
+                    public void onSuccess(String result) {
+                        callback.onResponse(result);
+                    }
 
-                @Override
-                public void onError(String error) {
-                    callback.onResponse("Here's a random fact: Octopuses have three hearts and blue blood!");
-                }
-            });
-            return true;
+                    @Override
+                    public void onError(String error) {
+                        callback.onResponse("Here's a random fact: Octopuses have three hearts and blue blood!");
+                    }
+                }));
+                return true;
+            default:
+                return false;
         }
-
-        return false;
     }
 
-    private void handleGeneralConversation(String command, AIResponseCallback callback) {
-        if (command.contains("hello") || command.contains("hi") || command.contains("hey")) {
-            Random random = new Random();
-            String response = greetingResponses[random.nextInt(greetingResponses.length)];
-            callback.onResponse(response);
-            return;
-        }
-
-        if (command.contains("how are you") || command.contains("how do you do")) {
-            String[] responses = {
-                    "I'm functioning perfectly and ready to assist you!",
-                    "All systems operational and ready to help!",
-                    "I'm doing great! How can I help you today?",
-                    "Running smoothly and eager to assist!"
-            };
-            Random random = new Random();
-            callback.onResponse(responses[random.nextInt(responses.length)]);
-            return;
-        }
-
-        if (command.contains("what can you do") || command.contains("help") || command.contains("capabilities")) {
-            String capabilities = "I can help you with: opening apps, controlling volume, " +
-                    "telling time and date, searching for information, telling jokes, " +
-                    "providing facts, quotes, trivia, riddles, crypto rates, GitHub info, " +
-                    "university search, name analysis, random activities, and much more! " +
-                    "Just ask me naturally and I'll do my best to help.";
-            callback.onResponse(capabilities);
-            return;
+    private boolean handleGeneralConversation(VoxIntent intent, AIResponseCallback callback) {
+        Random random = new Random();
+        switch (intent) {
+            case GREETING:
+                String response = greetingResponses[random.nextInt(greetingResponses.length)];
+                callback.onResponse(response);
+                return true;
+            case HOW_ARE_YOU:
+                String[] statusResponses = {
+                        "I'm functioning perfectly and ready to assist you!",
+                        "All systems operational and ready to help!",
+                        "I'm doing great! How can I help you today?",
+                        "Running smoothly and eager to assist!"
+                };
+                callback.onResponse(statusResponses[random.nextInt(statusResponses.length)]);
+                return true;
+            case CAPABILITIES:
+                String capabilities = "I can help you with: opening apps, controlling volume, " +
+                        "telling time and date, searching for information, telling jokes, " +
+                        "providing facts, quotes, trivia, riddles, crypto rates, GitHub info, " +
+                        "university search, name analysis, random activities, and much more! " +
+                        "Just ask me naturally and I'll do my best to help.";
+                callback.onResponse(capabilities);
+                return true;
+            case THANKS:
+                String[] thanksResponses = {
+                        "You're welcome! Happy to help.",
+                        "My pleasure! Anything else I can do?",
+                        "Glad I could help!",
+                        "You're very welcome!"
+                };
+                callback.onResponse(thanksResponses[random.nextInt(thanksResponses.length)]);
+                return true;
+            case GOODBYE:
+                String[] goodbyeResponses = {
+                        "Goodbye! Have a great day!",
+                        "See you later! Take care!",
+                        "Bye! I'll be here when you need me.",
+                        "Farewell! Have a wonderful day!"
+                };
+                callback.onResponse(goodbyeResponses[random.nextInt(goodbyeResponses.length)]);
+                return true;
+            case IDENTITY:
+                callback.onResponse("I'm Vox, your AI assistant created by Nayan Pote. I'm here to help you with various tasks, " +
+                        "answer questions, and make your life easier. Think of me as your personal digital companion!");
+                return true;
+            case CREATOR:
+                callback.onResponse("I was created by Nayan Pote, a passionate developer who built me with dedication and attention to detail. " +
+                        "He designed me to be your helpful AI companion, capable of understanding and assisting with a wide range of tasks.");
+                return true;
+            case AFFECTION:
+                callback.onResponse("That's very kind of you! I'm happy to be your helpful assistant. " +
+                        "Is there anything specific I can help you with today?");
+                return true;
+            default:
+                return false;
         }
+    }
 
-        if (command.contains("thank you") || command.contains("thanks")) {
-            String[] responses = {
-                    "You're welcome! Happy to help.",
-                    "My pleasure! Anything else I can do?",
-                    "Glad I could help!",
-                    "You're very welcome!"
-            };
-            Random random = new Random();
-            callback.onResponse(responses[random.nextInt(responses.length)]);
-            return;
+    // Offline, the last Hacker News snapshot is still worth reading out
+    private boolean answerFromNewsSnapshot(AIResponseCallback callback) {
+        String stories = HackerNewsFeed.getInstance().getOfflineStories();
+        if (stories == null) {
+            return false;
         }
+        callback.onResponse(stories);
+        return true;
+    }
 
-        if (command.contains("goodbye") || command.contains("bye") || command.contains("see you")) {
-            String[] responses = {
-                    "Goodbye! Have a great day!",
-                    "See you later! Take care!",
-                    "Bye! I'll be here when you need me.",
-                    "Farewell! Have a wonderful day!"
-            };
-            Random random = new Random();
-            callback.onResponse(responses[random.nextInt(responses.length)]);
-            return;
+    // Offline, any indexed answer beats none, however old
+    private boolean answerFromKnowledgeIndex(String query, AIResponseCallback callback) {
+        KnowledgeIndex index = KnowledgeIndex.getInstance();
+        KnowledgeIndex.Entry answer = index != null ? index.lookup(query) : null;
+        if (answer == null) {
+            return false;
         }
+        callback.onResponse(answer.value);
+        return true;
+    }
 
-        if (command.contains("who are you") || command.contains("what are you")) {
-            callback.onResponse("I'm Vox, your AI assistant created by Nayan Pote. I'm here to help you with various tasks, " +
-                    "answer questions, and make your life easier. Think of me as your personal digital companion!");
-            return;
-        }
+    // The indexed source the online lookup for this query would answer from; country answers are not indexed
+    private static KnowledgeIndex.Source knowledgeSourceFor(String query) {
+        if (query.contains("country") || CommandSlots.isCountryQuery(query)) return null;
+        return CommandSlots.isDefinitionQuery(query) ? KnowledgeIndex.Source.DICTIONARY : KnowledgeIndex.Source.WIKIPEDIA;
+    }
 
-        if (command.contains("who made you") || command.contains("who is your developer") || command.contains("who created you")) {
-            callback.onResponse("I was created by Nayan Pote, a passionate developer who built me with dedication and attention to detail. " +
-                    "He designed me to be your helpful AI companion, capable of understanding and assisting with a wide range of tasks.");
-            return;
-        }
+    private static KnowledgeIndex.Entry freshKnowledge(String query) {
+        KnowledgeIndex index = KnowledgeIndex.getInstance();
+        KnowledgeIndex.Source source = knowledgeSourceFor(query);
+        if (index == null || source == null) return null;
+        KnowledgeIndex.Entry entry = index.lookup(query, source);
+        return entry != null && entry.isFresh() ? entry : null;
+    }
 
-        if (command.contains("love you") || command.contains("like you")) {
-            callback.onResponse("That's very kind of you! I'm happy to be your helpful assistant. " +
-                    "Is there anything specific I can help you with today?");
-            return;
-        }
+    /**
+     * Online, an indexed answer is used only while it is fresh for the API it came from, and
+     * that API is asked again in the background so the index keeps up with it. Older entries
+     * fall through to the network lookup, which records the new answer.
+     */
+    private boolean answerFromFreshKnowledge(String query, AIResponseCallback callback) {
+        KnowledgeIndex.Entry answer = freshKnowledge(query);
+        if (answer == null) {
+            return false;
+        }
+        callback.onResponse(answer.value);
+        QueryLookup lookup = answer.source == KnowledgeIndex.Source.DICTIONARY
+                ? NetworkHelper::getDefinition : NetworkHelper::searchWikipedia;
+        lookup.lookup(query, KNOWLEDGE_REVALIDATION);
+        return true;
+    }
 
-        // Default responses for unrecognized commands
-        String[] defaultResponses = {
-                "I'm not sure I understand that. Could you please rephrase?",
-                "I didn't quite get that. Can you try saying it differently?",
-                "I'm still learning. Could you be more specific?",
-                "Sorry, I don't understand that command yet. Try asking me something else!",
-                "Hmm, I'm not sure about that. Can you ask me in a different way?"
-        };
+    // The specialised source outranks Wikipedia; Wikipedia is hedged rather than chained after it
+    private void raceInformationSources(String query, String sourceName, QueryLookup primary,
+                                        AIResponseCallback callback) {
+        track(new AnswerRace(INFO_PRECEDENCE_WINDOW_MS)
+                .add(sourceName, 0, networkCallback -> primary.lookup(query, networkCallback))
+                .add("wikipedia", INFO_HEDGE_DELAY_MS, networkCallback -> NetworkHelper.searchWikipedia(query, networkCallback))
+                .start(new AnswerRace.Listener() {
+                    @Override
+                    public void onAnswer(String winner, String result) {
+                        callback.onResponse(result);
+                    }
 
-        Random random = new Random();
-        String response = defaultResponses[random.nextInt(defaultResponses.length)];
-        callback.onResponse(response);
+                    @Override
+                    public void onNoAnswer() {
+                        callback.onResponse("I couldn't find specific information about that. " +
+                                "You might want to search online for more details.");
+                    }
+                }));
     }
 
     private void searchWikipediaInfo(String query, AIResponseCallback callback) {
-        NetworkHelper.searchWikipedia(query, new NetworkHelper.NetworkCallback() {
+        track(NetworkHelper.searchWikipedia(query, new NetworkHelper.NetworkCallback() {
             @Override
             public void onSuccess(String result) {
                 callback.onResponse(result);
@@ -613,57 +809,7 @@ public class VoxAIProcessor {
                 callback.onResponse("I couldn't find specific information about that. " +
                         "You might want to search online for more details.");
             }
-        });
-    }
-
-    // Helper methods for new API features
-    private String extractNameFromCommand(String command) {
-        String[] words = command.split(" ");
-        for (int i = 0; i < words.length; i++) {
-            if (words[i].equalsIgnoreCase("name") && i + 1 < words.length) {
-                return words[i + 1].replaceAll("[^a-zA-Z]", "");
-            }
-        }
-        return null;
-    }
-
-    private String extractUniversityQuery(String command) {
-        String[] prefixes = {"university", "college", "search university", "search college"};
-        String query = command;
-
-        for (String prefix : prefixes) {
-            if (command.contains(prefix)) {
-                query = command.substring(command.indexOf(prefix) + prefix.length()).trim();
-                break;
-            }
-        }
-
-        return query.isEmpty() ? "mit" : query; // Default to MIT
-    }
-
-    private String extractGitHubUsername(String command) {
-        String[] words = command.split(" ");
-        for (int i = 0; i < words.length; i++) {
-            if ((words[i].equalsIgnoreCase("github") || words[i].equalsIgnoreCase("git")) &&
-                    i + 1 < words.length && !words[i + 1].equalsIgnoreCase("hub")) {
-                return words[i + 1].replaceAll("[^a-zA-Z0-9-]", "");
-            }
-            if (words[i].equalsIgnoreCase("user") && i + 1 < words.length) {
-                return words[i + 1].replaceAll("[^a-zA-Z0-9-]", "");
-            }
-        }
-        return "octocat"; // Default GitHub user
-    }
-
-    private boolean isDefinitionQuery(String query) {
-        String[] definitionKeywords = {"define", "definition", "meaning", "what is", "what does", "explain"};
-        String lowerQuery = query.toLowerCase();
-        for (String keyword : definitionKeywords) {
-            if (lowerQuery.contains(keyword)) {
-                return true;
-            }
-        }
-        return false;
+        }));
     }
 
     // Existing helper methods
@@ -692,30 +838,43 @@ public class VoxAIProcessor {
     }
 
     private String getNetworkInfo() {
-        ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
-        NetworkInfo activeNetwork = cm.getActiveNetworkInfo();
-        if (activeNetwork != null && activeNetwork.isConnected()) {
-            if (activeNetwork.getType() == ConnectivityManager.TYPE_WIFI) {
+        ConnectivityMonitor.Snapshot network = ConnectivityMonitor.current();
+        if (!network.isConnected()) {
+            return "No internet connection detected.";
+        }
+        if (network.captivePortal) {
+            return "You are connected, but the network wants you to sign in before it reaches the internet.";
+        }
+        switch (network.transport) {
+            case WIFI:
                 return "You are connected to WiFi.";
-            } else if (activeNetwork.getType() == ConnectivityManager.TYPE_MOBILE) {
+            case CELLULAR:
                 return "You are connected to mobile data.";
-            }
+            case ETHERNET:
+                return "You are connected to ethernet.";
+            default:
+                return "You are connected to the internet.";
         }
-        return "No internet connection detected.";
     }
 
-    private String extractAppName(String command) {
-        String[] commonWords = {"open", "launch", "start", "the", "app", "application"};
-        String cleanCommand = command;
-
-        for (String word : commonWords) {
-            cleanCommand = cleanCommand.replace(word, "").trim();
+    private boolean openApp(String appName) {
+        AppIndex index = AppIndex.getInstance();
+        if (index != null && index.isReady()) {
+            AppIndex.App app = index.find(appName);
+            if (app == null) {
+                return false;
+            }
+            try {
+                context.startActivity(app.launchIntent());
+                index.recordLaunch(app);
+                return true;
+            } catch (Exception e) {
+                e.printStackTrace();
+                return false;
+            }
         }
 
-        return cleanCommand;
-    }
-
-    private boolean openApp(String appName) {
+        // First launch, before the index has been built
         try {
             PackageManager pm = context.getPackageManager();
             List<ApplicationInfo> apps = pm.getInstalledApplications(PackageManager.GET_META_DATA);
@@ -797,48 +956,9 @@ public class VoxAIProcessor {
         }
     }
 
-    private String extractQuery(String command) {
-        String[] prefixes = {"what is", "tell me about", "define", "explain", "who is", "where is"};
-        String query = command;
-
-        for (String prefix : prefixes) {
-            if (command.contains(prefix)) {
-                query = command.substring(command.indexOf(prefix) + prefix.length()).trim();
-                break;
-            }
-        }
-
-        return query;
-    }
-
-    private String extractNumber(String command) {
-        String[] words = command.split(" ");
-        for (String word : words) {
-            try {
-                Integer.parseInt(word);
-                return word;
-            } catch (NumberFormatException e) {
-                // Continue searching
-            }
-        }
-        return "42"; // Default number
-    }
-
-    private boolean isCountryQuery(String query) {
-        String[] countryKeywords = {"country", "nation", "capital", "population", "currency"};
-        String lowerQuery = query.toLowerCase();
-        for (String keyword : countryKeywords) {
-            if (lowerQuery.contains(keyword)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     private boolean isNetworkAvailable() {
-        ConnectivityManager connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
-        NetworkInfo activeNetworkInfo = connectivityManager.getActiveNetworkInfo();
-        return activeNetworkInfo != null && activeNetworkInfo.isConnected();
+        // Unvalidated networks count as online; dead ones are caught by the circuit breakers
+        return ConnectivityMonitor.current().hasInternet();
     }
 
 
@@ -0,0 +1,219 @@
+package com.nayanpote.voxnayanai;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Process-wide OkHttp client. Per-endpoint clients are derived from one base client, so they
+ * share its connection pool and dispatcher and repeated queries reuse warm connections.
+ */
+public final class VoxHttpClient {
+
+    private static final String USER_AGENT = "VoxAI/1.0";
+
+    private static final int MAX_IDLE_CONNECTIONS = 8;
+    private static final long KEEP_ALIVE_MINUTES = 5;
+
+    // Set by replay tests; null means calls go to the real endpoints
+    private static volatile HttpUrl baseUrlOverride;
+
+    private static final OkHttpClient BASE_CLIENT = new OkHttpClient.Builder()
+            .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+            .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+            .retryOnConnectionFailure(true)
+            .followRedirects(true)
+            .addInterceptor(chain -> {
+                Request request = chain.request();
+                HttpUrl base = baseUrlOverride;
+                return chain.proceed(base == null ? request
+                        : request.newBuilder().url(redirect(base, request.url())).build());
+            })
+            .build();
+
+    private static final Map<ApiEndpoint, OkHttpClient> ENDPOINT_CLIENTS = new EnumMap<>(ApiEndpoint.class);
+
+    // Handle of the lookup running on this thread; calls made for it are cancelled with it
+    private static final ThreadLocal<RequestHandle> CURRENT_HANDLE = new ThreadLocal<>();
+
+    private VoxHttpClient() {
+    }
+
+    public static OkHttpClient getBaseClient() {
+        return BASE_CLIENT;
+    }
+
+    public static synchronized OkHttpClient forEndpoint(ApiEndpoint endpoint) {
+        OkHttpClient client = ENDPOINT_CLIENTS.get(endpoint);
+        if (client == null) {
+            client = BASE_CLIENT.newBuilder()
+                    .connectTimeout(endpoint.connectTimeoutMs, TimeUnit.MILLISECONDS)
+                    .readTimeout(endpoint.readTimeoutMs, TimeUnit.MILLISECONDS)
+                    .callTimeout(endpoint.callTimeoutMs, TimeUnit.MILLISECONDS)
+                    .addInterceptor(chain -> {
+                        CircuitBreakers breakers = CircuitBreakers.getInstance();
+                        return breakers != null ? breakers.intercept(endpoint, chain) : chain.proceed(chain.request());
+                    })
+                    // Inside the breaker, so rejected calls are not timed
+                    .addInterceptor(chain -> AdaptiveTimeouts.intercept(endpoint, chain))
+                    // Below decompression, so compressed bytes are counted against the budget
+                    .addNetworkInterceptor(chain -> ResponseBudget.intercept(endpoint, chain))
+                    .build();
+            ENDPOINT_CLIENTS.put(endpoint, client);
+        }
+        return client;
+    }
+
+    /**
+     * Sends every call to the given server instead of the public APIs, for replaying recorded
+     * responses in tests. The original host becomes the first path segment, so
+     * https://api.github.com/users/octocat is requested as {base}/api.github.com/users/octocat.
+     * Pass null to go back to the real endpoints.
+     */
+    public static void setBaseUrlOverride(HttpUrl base) {
+        baseUrlOverride = base;
+    }
+
+    private static HttpUrl redirect(HttpUrl base, HttpUrl url) {
+        return base.newBuilder()
+                .addPathSegment(url.host())
+                .addEncodedPathSegments(url.encodedPath().substring(1))
+                .encodedQuery(url.encodedQuery())
+                .build();
+    }
+
+    /**
+     * Runs the work with every call it makes (blocking or enqueued) tied to the handle, so
+     * cancelling the handle aborts the connections instead of waiting for them to finish.
+     */
+    public static <T> T callWithin(RequestHandle handle, Callable<T> work) throws Exception {
+        RequestHandle previous = CURRENT_HANDLE.get();
+        CURRENT_HANDLE.set(handle);
+        try {
+            return work.call();
+        } finally {
+            CURRENT_HANDLE.set(previous);
+        }
+    }
+
+    private static Call newCall(ApiEndpoint endpoint, Request request) {
+        Call call = forEndpoint(endpoint).newCall(request);
+        RequestHandle handle = CURRENT_HANDLE.get();
+        if (handle != null) {
+            handle.onCancel(call::cancel);
+        }
+        return call;
+    }
+
+    public static Request.Builder newRequest(String url) {
+        return new Request.Builder()
+                .url(url)
+                .header("User-Agent", USER_AGENT)
+                .get();
+    }
+
+    // Blocking GET for use on NetworkExecutor threads; non-2xx responses are reported as IOException
+    public static String fetchString(ApiEndpoint endpoint, Request request) throws IOException {
+        try (Response response = newCall(endpoint, request).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                throw new IOException(endpoint + " returned HTTP " + response.code());
+            }
+            return body.string();
+        }
+    }
+
+    public static String fetchString(ApiEndpoint endpoint, String url) throws IOException {
+        return fetchString(endpoint, newRequest(url).build());
+    }
+
+    public static String fetchString(ApiEndpoint endpoint) throws IOException {
+        return fetchString(endpoint, endpoint.url);
+    }
+
+    /**
+     * Streams the body through the extractor and closes the call as soon as every field
+     * is found, so large documents are never read to the end.
+     */
+    public static Map<String, String> fetchFields(ApiEndpoint endpoint, Request request,
+                                                  JsonFieldExtractor extractor) throws IOException {
+        try (Response response = newCall(endpoint, request).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                throw new IOException(endpoint + " returned HTTP " + response.code());
+            }
+            return extractor.extract(body.charStream());
+        }
+    }
+
+    public static Map<String, String> fetchFields(ApiEndpoint endpoint, String url,
+                                                  JsonFieldExtractor extractor) throws IOException {
+        return fetchFields(endpoint, newRequest(url).build(), extractor);
+    }
+
+    public static Map<String, String> fetchFields(ApiEndpoint endpoint,
+                                                  JsonFieldExtractor extractor) throws IOException {
+        return fetchFields(endpoint, endpoint.url, extractor);
+    }
+
+    public interface FieldsListener {
+        // Called on an OkHttp dispatcher thread; fields is null if the call failed or was cancelled
+        void onFields(Map<String, String> fields);
+    }
+
+    /**
+     * Asynchronous fetchFields() on OkHttp's dispatcher, for fanning out several calls
+     * without tying up a NetworkExecutor thread per call. The returned Call can be cancelled.
+     */
+    public static Call enqueueFields(ApiEndpoint endpoint, Request request,
+                                     JsonFieldExtractor extractor, FieldsListener listener) {
+        Call call = newCall(endpoint, request);
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                listener.onFields(null);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                Map<String, String> fields = null;
+                try (Response closing = response) {
+                    ResponseBody body = closing.body();
+                    if (closing.isSuccessful() && body != null) {
+                        fields = extractor.extract(body.charStream());
+                    }
+                } catch (IOException e) {
+                    fields = null;
+                }
+                listener.onFields(fields);
+            }
+        });
+        return call;
+    }
+
+    public static Call enqueueFields(ApiEndpoint endpoint, String url,
+                                     JsonFieldExtractor extractor, FieldsListener listener) {
+        return enqueueFields(endpoint, newRequest(url).build(), extractor, listener);
+    }
+
+    public static int getConnectionCount() {
+        return BASE_CLIENT.connectionPool().connectionCount();
+    }
+
+    public static int getIdleConnectionCount() {
+        return BASE_CLIENT.connectionPool().idleConnectionCount();
+    }
+}
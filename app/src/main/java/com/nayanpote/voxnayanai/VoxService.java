@@ -14,6 +14,8 @@ import android.speech.RecognizerIntent;
 import android.speech.SpeechRecognizer;
 import android.speech.tts.TextToSpeech;
 import androidx.core.app.NotificationCompat;
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Locale;
 
@@ -21,11 +23,18 @@ public class VoxService extends Service implements TextToSpeech.OnInitListener {
 
     private static final int NOTIFICATION_ID = 1001;
     private static final String CHANNEL_ID = "VoxServiceChannel";
+    private static final String WAKE_ACKNOWLEDGEMENT = "Yes, I'm here. Opening Vox AI.";
+    private static final String OPEN_APP_SUGGESTION = "Would you like me to open the full Vox interface for more options?";
+    private static final float SPEECH_RATE = 0.9f;
+    private static final float SPEECH_PITCH = 1.0f;
 
     private SpeechRecognizer backgroundSpeechRecognizer;
     private Intent backgroundSpeechIntent;
     private TextToSpeech backgroundTTS;
+    private SpeechOutput backgroundSpeech;
     private VoxAIProcessor aiProcessor;
+    private RequestHandle currentRequest;
+    private LatencyTracer.Trace pendingTrace;
     private boolean isServiceActive = true;
     private boolean isBackgroundListening = false;
 
@@ -34,7 +43,10 @@ public class VoxService extends Service implements TextToSpeech.OnInitListener {
         super.onCreate();
         createNotificationChannel();
         initializeBackgroundComponents();
+        ConnectivityMonitor.init(this);
         aiProcessor = new VoxAIProcessor(this);
+        aiProcessor.setSupersedePrevious(true);
+        HackerNewsFeed.getInstance().startPeriodicRefresh();
     }
 
     @Override
@@ -115,6 +127,8 @@ public class VoxService extends Service implements TextToSpeech.OnInitListener {
 
             @Override
             public void onEndOfSpeech() {
+                pendingTrace = LatencyTracer.begin();
+                pendingTrace.mark(LatencyTracer.Stage.END_OF_SPEECH);
                 isBackgroundListening = false;
                 if (isServiceActive) {
                     // Restart listening after a brief delay
@@ -129,6 +143,7 @@ public class VoxService extends Service implements TextToSpeech.OnInitListener {
             @Override
             public void onError(int error) {
                 isBackgroundListening = false;
+                aiProcessor.cancelSpeculation();
                 // Restart listening after error (except for critical errors)
                 if (error != SpeechRecognizer.ERROR_CLIENT &&
                         error != SpeechRecognizer.ERROR_INSUFFICIENT_PERMISSIONS && isServiceActive) {
@@ -146,7 +161,10 @@ public class VoxService extends Service implements TextToSpeech.OnInitListener {
                 ArrayList<String> matches = results.getStringArrayList(SpeechRecognizer.RESULTS_RECOGNITION);
                 if (matches != null && !matches.isEmpty()) {
                     String spokenText = matches.get(0);
-                    processBackgroundCommand(spokenText);
+                    LatencyTracer.Trace trace = pendingTrace != null ? pendingTrace : LatencyTracer.begin();
+                    pendingTrace = null;
+                    trace.mark(LatencyTracer.Stage.RESULTS);
+                    processBackgroundCommand(spokenText, trace);
                 }
 
                 // Continue listening for wake words
@@ -168,7 +186,11 @@ public class VoxService extends Service implements TextToSpeech.OnInitListener {
                     if (aiProcessor.isWakeWord(partialText)) {
                         // Stop current listening and process wake word immediately
                         backgroundSpeechRecognizer.stopListening();
-                        processBackgroundCommand(partialText);
+                        LatencyTracer.Trace trace = LatencyTracer.begin();
+                        trace.mark(LatencyTracer.Stage.RESULTS);
+                        processBackgroundCommand(partialText, trace);
+                    } else {
+                        aiProcessor.onPartialTranscript(partialText);
                     }
                 }
             }
@@ -181,6 +203,9 @@ public class VoxService extends Service implements TextToSpeech.OnInitListener {
     private void startBackgroundListening() {
         if (!isBackgroundListening && isServiceActive) {
             try {
+                // Wake-word detection keeps working offline with on-device recognition
+                backgroundSpeechIntent.putExtra(RecognizerIntent.EXTRA_PREFER_OFFLINE,
+                        !ConnectivityMonitor.current().hasInternet());
                 backgroundSpeechRecognizer.startListening(backgroundSpeechIntent);
             } catch (Exception e) {
                 e.printStackTrace();
@@ -201,11 +226,11 @@ public class VoxService extends Service implements TextToSpeech.OnInitListener {
         }
     }
 
-    private void processBackgroundCommand(String command) {
+    private void processBackgroundCommand(String command, LatencyTracer.Trace trace) {
         if (aiProcessor.isWakeWord(command)) {
             // Wake word detected - respond and open main app
-            String response = "Yes, I'm here. Opening Vox AI.";
-            speakBackgroundResponse(response);
+            trace.setIntent("WAKE_WORD");
+            speakBackgroundResponse(WAKE_ACKNOWLEDGEMENT, trace);
 
             // Open main activity
             Intent mainIntent = new Intent(this, MainActivity.class);
@@ -216,29 +241,48 @@ public class VoxService extends Service implements TextToSpeech.OnInitListener {
         }
 
         // Process other commands in background
-        aiProcessor.processCommand(command, new VoxAIProcessor.AIResponseCallback() {
+        currentRequest = aiProcessor.processCommand(command, trace, new VoxAIProcessor.AIResponseCallback() {
             @Override
             public void onResponse(String response) {
-                speakBackgroundResponse(response);
+                speakBackgroundResponse(response, trace);
 
                 // For complex commands, suggest opening the main app
                 if (response.contains("I need to") || response.contains("complex")) {
                     new android.os.Handler().postDelayed(() -> {
-                        speakBackgroundResponse("Would you like me to open the full Vox interface for more options?");
+                        // Queued behind the answer rather than cutting it off
+                        if (backgroundSpeech != null) {
+                            backgroundSpeech.speakAfter(OPEN_APP_SUGGESTION);
+                        }
                     }, 2000);
                 }
             }
 
             @Override
             public void onError(String error) {
-                speakBackgroundResponse("Sorry, I encountered an error while processing your request.");
+                speakBackgroundResponse("Sorry, I encountered an error while processing your request.", trace);
             }
         });
     }
 
-    private void speakBackgroundResponse(String text) {
-        if (backgroundTTS != null) {
-            backgroundTTS.speak(text, TextToSpeech.QUEUE_FLUSH, null, null);
+    private void speakBackgroundResponse(String text, LatencyTracer.Trace trace) {
+        if (backgroundSpeech != null) {
+            backgroundSpeech.speak(text, trace);
+        }
+    }
+
+    // adb shell dumpsys activity service com.nayanpote.voxnayanai/.VoxService
+    @Override
+    protected void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        LatencyTracer.dump(writer);
+        AdaptiveTimeouts.dump(writer);
+        ResponseBudget.dump(writer);
+        writer.println(aiProcessor.getCommandRegistry());
+        writer.println("Deduplicated lookups: " + NetworkHelper.getDeduplicatedCallCount()
+                + ", prefetch hits: " + NetworkHelper.getPrefetchHitCount()
+                + ", abandoned calls: " + NetworkHelper.getAbandonedCallCount());
+        CircuitBreakers breakers = CircuitBreakers.getInstance();
+        if (breakers != null) {
+            writer.println(breakers);
         }
     }
 
@@ -247,8 +291,15 @@ public class VoxService extends Service implements TextToSpeech.OnInitListener {
         if (status == TextToSpeech.SUCCESS) {
             int result = backgroundTTS.setLanguage(Locale.US);
             if (result != TextToSpeech.LANG_MISSING_DATA && result != TextToSpeech.LANG_NOT_SUPPORTED) {
-                backgroundTTS.setSpeechRate(0.9f);
-                backgroundTTS.setPitch(1.0f);
+                backgroundTTS.setSpeechRate(SPEECH_RATE);
+                backgroundTTS.setPitch(SPEECH_PITCH);
+                // The always-on service says the same few lines; render them once
+                SpeechCache.init(this);
+                backgroundSpeech = new SpeechOutput(backgroundTTS,
+                        SpeechCache.getInstance().attach(backgroundTTS, SPEECH_RATE, SPEECH_PITCH));
+                backgroundSpeech.prewarm(WAKE_ACKNOWLEDGEMENT, OPEN_APP_SUGGESTION);
+            } else {
+                backgroundSpeech = new SpeechOutput(backgroundTTS);
             }
         }
     }
@@ -259,11 +310,18 @@ public class VoxService extends Service implements TextToSpeech.OnInitListener {
         isServiceActive = false;
 
         stopBackgroundListening();
+        HackerNewsFeed.getInstance().stopPeriodicRefresh();
 
         if (backgroundSpeechRecognizer != null) {
             backgroundSpeechRecognizer.destroy();
         }
 
+        if (currentRequest != null) {
+            currentRequest.cancel();
+        }
+        if (backgroundSpeech != null) {
+            backgroundSpeech.cancel();
+        }
         if (backgroundTTS != null) {
             backgroundTTS.stop();
             backgroundTTS.shutdown();
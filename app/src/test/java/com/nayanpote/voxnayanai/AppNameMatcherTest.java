@@ -0,0 +1,92 @@
+package com.nayanpote.voxnayanai;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AppNameMatcherTest {
+
+    private static final List<AppIndex.App> APPS = Arrays.asList(
+            app("WhatsApp", "com.whatsapp"),
+            app("YouTube", "com.google.android.youtube"),
+            app("Clash of Clans", "com.supercell.clashofclans"),
+            app("Chrome", "com.android.chrome"),
+            app("Camera", "com.android.camera"));
+
+    private static AppIndex.App app(String label, String packageName) {
+        return new AppIndex.App(label, packageName, packageName + ".Main");
+    }
+
+    private static List<AppNameMatcher.Match> topK(List<AppIndex.App> apps, String spokenName) {
+        return new AppNameMatcher(apps).topK(spokenName, 3, null);
+    }
+
+    @Test
+    public void soundexFollowsTheStandardRules() {
+        assertEquals("R163", AppNameMatcher.soundex("robert"));
+        assertEquals("R163", AppNameMatcher.soundex("rupert"));
+        assertEquals("T522", AppNameMatcher.soundex("tymczak"));
+        assertEquals("P236", AppNameMatcher.soundex("pfister"));
+        // 'h' does not separate the two letters coded 2
+        assertEquals("A261", AppNameMatcher.soundex("ashcraft"));
+        assertEquals("L000", AppNameMatcher.soundex("lee"));
+        assertEquals("", AppNameMatcher.soundex(""));
+    }
+
+    @Test
+    public void misheardNamesStillMatch() {
+        assertEquals("com.whatsapp", topK(APPS, "watsap").get(0).app.packageName);
+        assertEquals("com.google.android.youtube", topK(APPS, "you tube").get(0).app.packageName);
+    }
+
+    @Test
+    public void exactLabelRanksFirst() {
+        List<AppNameMatcher.Match> matches = topK(APPS, "Camera");
+        assertEquals("com.android.camera", matches.get(0).app.packageName);
+    }
+
+    @Test
+    public void phoneticCollisionAloneIsNotAMatch() {
+        // "clock" and "clash" share the Soundex key C420
+        assertEquals(AppNameMatcher.soundex("clock"), AppNameMatcher.soundex("clash"));
+        assertTrue(topK(APPS, "clock").isEmpty());
+    }
+
+    @Test
+    public void realMatchWinsOverPhoneticCollision() {
+        List<AppIndex.App> apps = Arrays.asList(
+                app("Clash of Clans", "com.supercell.clashofclans"),
+                app("Clock", "com.android.deskclock"));
+        List<AppNameMatcher.Match> matches = topK(apps, "clock");
+        assertEquals(1, matches.size());
+        assertEquals("com.android.deskclock", matches.get(0).app.packageName);
+    }
+
+    @Test
+    public void usageBoostDoesNotRescueUnrelatedApps() {
+        List<AppNameMatcher.Match> matches = new AppNameMatcher(APPS).topK("calculator", 3, packageName -> 1.0);
+        assertTrue(matches.isEmpty());
+    }
+
+    @Test
+    public void resultsAreCappedAtK() {
+        List<AppIndex.App> apps = Arrays.asList(
+                app("Chrome Beta", "com.chrome.beta"),
+                app("Chrome", "com.android.chrome"),
+                app("Chrome Dev", "com.chrome.dev"));
+        List<AppNameMatcher.Match> matches = new AppNameMatcher(apps).topK("chrome", 2, null);
+        assertEquals(2, matches.size());
+        assertEquals("com.android.chrome", matches.get(0).app.packageName);
+    }
+
+    @Test
+    public void blankQueryOrEmptyIndexMatchesNothing() {
+        assertTrue(new AppNameMatcher(APPS).topK("   ", 3, null).isEmpty());
+        assertTrue(new AppNameMatcher(Collections.emptyList()).topK("chrome", 3, null).isEmpty());
+    }
+}
@@ -0,0 +1,23 @@
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    api(libs.gson)
+
+    testImplementation(libs.junit)
+}
+
+// ./gradlew :core:jmh
+jmh {
+    jmhVersion = libs.versions.jmh.get()
+    // Reports bytes allocated per operation next to the timings
+    profilers.add("gc")
+    resultFormat = "JSON"
+}
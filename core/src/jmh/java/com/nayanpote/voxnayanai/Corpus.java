@@ -0,0 +1,47 @@
+package com.nayanpote.voxnayanai;
+
+/**
+ * Utterances as the recognizer delivers them, covering most intents plus a few that match
+ * nothing. Used by the benchmarks so they measure the same mix.
+ */
+final class Corpus {
+
+    static final String[] UTTERANCES = {
+            "hey vox",
+            "what time is it",
+            "what's the date today",
+            "increase the volume",
+            "turn the volume down please",
+            "open whatsapp",
+            "launch the camera app",
+            "what is quantum entanglement",
+            "tell me about the eiffel tower",
+            "who is alan turing",
+            "what is the capital of france",
+            "define serendipity",
+            "tell me a joke",
+            "give me a programming quote",
+            "latest tech news",
+            "bitcoin price",
+            "analyze the name priya",
+            "search university oxford",
+            "github user octocat",
+            "tell me a fact about the number 42",
+            "tell me a cat fact",
+            "give me some advice",
+            "ask me a riddle",
+            "play some music",
+            "open the calculator",
+            "check my network connection",
+            "how much battery do I have left",
+            "I am bored suggest an activity",
+            "the weather was lovely in the park yesterday afternoon",
+            "hmm",
+    };
+
+    // Constant for @OperationsPerInvocation; must match UTTERANCES
+    static final int SIZE = 30;
+
+    private Corpus() {
+    }
+}
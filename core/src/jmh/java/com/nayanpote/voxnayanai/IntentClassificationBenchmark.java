@@ -0,0 +1,57 @@
+package com.nayanpote.voxnayanai;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of classifying one recognized command, the work done for every utterance
+ * before anything else happens. Results are per utterance over the whole corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntentClassificationBenchmark {
+
+    private IntentMatcher matcher;
+    private String[] normalized;
+
+    @Setup
+    public void setUp() {
+        matcher = IntentMatcher.compile(VoxIntent.values());
+        normalized = new String[Corpus.UTTERANCES.length];
+        for (int i = 0; i < normalized.length; i++) {
+            normalized[i] = Utterance.parse(Corpus.UTTERANCES[i]).text();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SIZE)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void classify(Blackhole blackhole) {
+        for (String text : normalized) {
+            blackhole.consume(matcher.classify(text));
+        }
+    }
+
+    // Compiling the automaton happens once per process, but it is on the cold start path
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public IntentMatcher compile() {
+        return IntentMatcher.compile(VoxIntent.values());
+    }
+}
@@ -0,0 +1,91 @@
+package com.nayanpote.voxnayanai;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonFieldExtractor over API responses recorded from the endpoints Vox calls, with the
+ * same paths NetworkHelper and HackerNewsFeed use. Payloads live in src/jmh/resources/payloads.
+ * Bytes are decoded inside the benchmark, as they are when reading a response body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonExtractionBenchmark {
+
+    @Param({"wikipedia_summary", "restcountries_name", "hacker_news_topstories", "github_user",
+            "dictionary_definition"})
+    public String payload;
+
+    private byte[] body;
+    private JsonFieldExtractor extractor;
+
+    @Setup
+    public void setUp() throws IOException {
+        body = readPayload(payload);
+        extractor = new JsonFieldExtractor(pathsFor(payload));
+    }
+
+    @Benchmark
+    public Map<String, String> extract() throws IOException {
+        try (Reader reader = new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8)) {
+            return extractor.extract(reader);
+        }
+    }
+
+    // Kept in step with the extractors declared in NetworkHelper and HackerNewsFeed
+    private static String[] pathsFor(String payload) {
+        switch (payload) {
+            case "wikipedia_summary":
+                return new String[]{"extract"};
+            case "restcountries_name":
+                return new String[]{"0.name.common", "0.capital.0", "0.population", "0.region",
+                        "0.currencies.*.name", "0.languages.*"};
+            case "hacker_news_topstories":
+                return new String[]{"0", "1", "2", "3", "4"};
+            case "github_user":
+                return new String[]{"login", "name", "public_repos", "followers", "bio"};
+            case "dictionary_definition":
+                return new String[]{"0.meanings.0.partOfSpeech", "0.meanings.0.definitions.0.definition"};
+            default:
+                throw new IllegalArgumentException("No paths for " + payload);
+        }
+    }
+
+    private static byte[] readPayload(String name) throws IOException {
+        try (InputStream in = JsonExtractionBenchmark.class.getResourceAsStream("/payloads/" + name + ".json")) {
+            if (in == null) {
+                throw new IOException("Missing payload " + name);
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.nayanpote.voxnayanai;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Everything VoxAIProcessor does with an utterance before dispatching it: normalize and
+ * tokenize, classify, then pull out the slots the matched intent needs. Run with the gc
+ * profiler (enabled in core/build.gradle.kts); gc.alloc.rate.norm divided by the corpus size
+ * is the allocation per utterance.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UtteranceBenchmark {
+
+    private IntentMatcher matcher;
+
+    @Setup
+    public void setUp() {
+        matcher = IntentMatcher.compile(VoxIntent.values());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SIZE)
+    public void parse(Blackhole blackhole) {
+        for (String raw : Corpus.UTTERANCES) {
+            blackhole.consume(Utterance.parse(raw));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(Corpus.SIZE)
+    public void parseClassifyAndExtract(Blackhole blackhole) {
+        for (String raw : Corpus.UTTERANCES) {
+            Utterance utterance = Utterance.parse(raw);
+            IntentMatcher.Result match = matcher.classify(utterance.text());
+            blackhole.consume(match);
+            if (!match.isEmpty()) {
+                blackhole.consume(extractSlots(utterance, match.intent(0), match.end(0)));
+            }
+        }
+    }
+
+    // Mirrors the slot extraction of the handlers in VoxAIProcessor
+    private static Object extractSlots(Utterance utterance, VoxIntent intent, int triggerEnd) {
+        switch (intent) {
+            case INFO_QUERY:
+                String query = CommandSlots.extractQuery(utterance, triggerEnd);
+                return CommandSlots.isCountryQuery(query) || CommandSlots.isDefinitionQuery(query) ? query : null;
+            case APP_LAUNCH:
+                return CommandSlots.extractAppName(utterance);
+            case NAME_ANALYSIS:
+                return CommandSlots.extractNameFromCommand(utterance);
+            case UNIVERSITY:
+                return CommandSlots.extractUniversityQuery(utterance, triggerEnd);
+            case GITHUB:
+                return CommandSlots.extractGitHubUsername(utterance);
+            case NUMBER_FACT:
+                return CommandSlots.extractNumber(utterance);
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.nayanpote.voxnayanai;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Pulls the arguments of a command (names, queries, usernames, numbers) out of a parsed
+ * utterance. Kept free of Android types so it can be benchmarked on the JVM.
+ */
+public final class CommandSlots {
+
+    private static final Set<String> APP_NAME_STOP_WORDS = new HashSet<>(Arrays.asList(
+            "open", "launch", "start", "the", "app", "application", "please", "my"));
+
+    private CommandSlots() {
+    }
+
+    public static String extractNameFromCommand(Utterance command) {
+        int name = command.indexOf("name");
+        if (name >= 0 && name + 1 < command.size()) {
+            return command.letters(name + 1);
+        }
+        return null;
+    }
+
+    public static String extractUniversityQuery(Utterance command, int triggerEnd) {
+        String query = command.textAfter(triggerEnd);
+        return query.isEmpty() ? "mit" : query; // Default to MIT
+    }
+
+    public static String extractGitHubUsername(Utterance command) {
+        for (int i = 0; i + 1 < command.size(); i++) {
+            if ((command.tokenEquals(i, "github") || command.tokenEquals(i, "git")) &&
+                    !command.tokenEquals(i + 1, "hub")) {
+                return command.handle(i + 1);
+            }
+            if (command.tokenEquals(i, "user")) {
+                return command.handle(i + 1);
+            }
+        }
+        return "octocat"; // Default GitHub user
+    }
+
+    public static String extractAppName(Utterance command) {
+        // Whole words only, so names like "appstore" or "startup" survive
+        StringBuilder appName = new StringBuilder();
+        for (int i = 0; i < command.size(); i++) {
+            String word = command.token(i);
+            if (APP_NAME_STOP_WORDS.contains(word)) continue;
+            if (appName.length() > 0) appName.append(' ');
+            appName.append(word);
+        }
+        return appName.toString();
+    }
+
+    public static String extractQuery(Utterance command, int triggerEnd) {
+        // Everything after the matched trigger phrase ("what is", "tell me about", ...)
+        return command.textAfter(triggerEnd);
+    }
+
+    public static String extractNumber(Utterance command) {
+        String number = command.firstNumber();
+        return number != null ? number : "42"; // Default number
+    }
+
+    public static boolean isDefinitionQuery(String query) {
+        String[] definitionKeywords = {"define", "definition", "meaning", "what is", "what does", "explain"};
+        String lowerQuery = query.toLowerCase();
+        for (String keyword : definitionKeywords) {
+            if (lowerQuery.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isCountryQuery(String query) {
+        String[] countryKeywords = {"country", "nation", "capital", "population", "currency"};
+        String lowerQuery = query.toLowerCase();
+        for (String keyword : countryKeywords) {
+            if (lowerQuery.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
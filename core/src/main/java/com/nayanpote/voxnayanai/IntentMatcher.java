@@ -0,0 +1,269 @@
+package com.nayanpote.voxnayanai;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton over every trigger and qualifier phrase of a set of intents.
+ * Compiled once, then classifies an utterance in a single pass over its characters.
+ */
+public final class IntentMatcher {
+
+    // a-z, 0-9, whitespace, apostrophe, everything else
+    private static final int ALPHABET = 39;
+    private static final int SYMBOL_SPACE = 36;
+    private static final int SYMBOL_APOSTROPHE = 37;
+    private static final int SYMBOL_OTHER = 38;
+
+    // Phrases shorter than this must end on a word boundary ("hi" must not match "his")
+    private static final int MIN_PLURAL_PHRASE_LENGTH = 4;
+
+    private final VoxIntent[] intents;
+    private final int[] transitions;
+    private final int[][] outputs;
+    private final int[] phraseIntent;
+    private final int[] phraseLength;
+    private final boolean[] phraseQualifier;
+
+    private IntentMatcher(VoxIntent[] intents, int[] transitions, int[][] outputs,
+                          int[] phraseIntent, int[] phraseLength, boolean[] phraseQualifier) {
+        this.intents = intents;
+        this.transitions = transitions;
+        this.outputs = outputs;
+        this.phraseIntent = phraseIntent;
+        this.phraseLength = phraseLength;
+        this.phraseQualifier = phraseQualifier;
+    }
+
+    public static IntentMatcher compile(VoxIntent... intents) {
+        List<int[]> trie = new ArrayList<>();
+        List<List<Integer>> nodeOutputs = new ArrayList<>();
+        trie.add(newNode());
+        nodeOutputs.add(new ArrayList<>());
+
+        List<Integer> intentOfPhrase = new ArrayList<>();
+        List<Integer> lengthOfPhrase = new ArrayList<>();
+        List<Boolean> qualifierPhrase = new ArrayList<>();
+
+        for (int i = 0; i < intents.length; i++) {
+            for (int pass = 0; pass < 2; pass++) {
+                boolean qualifier = pass == 1;
+                String[] phrases = qualifier ? intents[i].qualifiers : intents[i].triggers;
+                for (String phrase : phrases) {
+                    int node = 0;
+                    for (int c = 0; c < phrase.length(); c++) {
+                        int symbol = symbolOf(phrase.charAt(c));
+                        int next = trie.get(node)[symbol];
+                        if (next < 0) {
+                            next = trie.size();
+                            trie.get(node)[symbol] = next;
+                            trie.add(newNode());
+                            nodeOutputs.add(new ArrayList<>());
+                        }
+                        node = next;
+                    }
+                    nodeOutputs.get(node).add(intentOfPhrase.size());
+                    intentOfPhrase.add(i);
+                    lengthOfPhrase.add(phrase.length());
+                    qualifierPhrase.add(qualifier);
+                }
+            }
+        }
+
+        // Breadth-first pass resolves failure links into a dense transition table
+        int states = trie.size();
+        int[] fail = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int[] root = trie.get(0);
+        for (int s = 0; s < ALPHABET; s++) {
+            if (root[s] < 0) {
+                root[s] = 0;
+            } else {
+                fail[root[s]] = 0;
+                queue.add(root[s]);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int[] node = trie.get(state);
+            for (int s = 0; s < ALPHABET; s++) {
+                int child = node[s];
+                if (child < 0) {
+                    node[s] = trie.get(fail[state])[s];
+                } else {
+                    fail[child] = trie.get(fail[state])[s];
+                    nodeOutputs.get(child).addAll(nodeOutputs.get(fail[child]));
+                    queue.add(child);
+                }
+            }
+        }
+
+        int[] transitions = new int[states * ALPHABET];
+        int[][] outputs = new int[states][];
+        for (int state = 0; state < states; state++) {
+            System.arraycopy(trie.get(state), 0, transitions, state * ALPHABET, ALPHABET);
+            List<Integer> out = nodeOutputs.get(state);
+            outputs[state] = new int[out.size()];
+            for (int k = 0; k < out.size(); k++) {
+                outputs[state][k] = out.get(k);
+            }
+        }
+
+        int phrases = intentOfPhrase.size();
+        int[] phraseIntent = new int[phrases];
+        int[] phraseLength = new int[phrases];
+        boolean[] phraseQualifier = new boolean[phrases];
+        for (int p = 0; p < phrases; p++) {
+            phraseIntent[p] = intentOfPhrase.get(p);
+            phraseLength[p] = lengthOfPhrase.get(p);
+            phraseQualifier[p] = qualifierPhrase.get(p);
+        }
+
+        return new IntentMatcher(intents.clone(), transitions, outputs,
+                phraseIntent, phraseLength, phraseQualifier);
+    }
+
+    /**
+     * Returns every intent whose triggers (and qualifiers, if any) occur in the text, best first.
+     * When a leading intent's trigger opens the text, intents matched only in the rest of it
+     * rank below those overlapping that trigger. Within each group longer matched phrases rank
+     * higher; ties go to the intent declared first.
+     */
+    public Result classify(CharSequence text) {
+        int count = intents.length;
+        int[] start = new int[count];
+        int[] end = new int[count];
+        int[] score = new int[count];
+        boolean[] qualified = new boolean[count];
+        Arrays.fill(start, -1);
+        // End of the longest leading trigger starting at offset 0, or 0 when there is none
+        int leadEnd = 0;
+
+        int n = text.length();
+        int state = 0;
+        for (int i = 0; i < n; i++) {
+            state = transitions[state * ALPHABET + symbolOf(text.charAt(i))];
+            for (int phrase : outputs[state]) {
+                int length = phraseLength[phrase];
+                int from = i - length + 1;
+                if (!isBoundaryBefore(text, from) || !isBoundaryAfter(text, i + 1, length)) {
+                    continue;
+                }
+
+                int intent = phraseIntent[phrase];
+                if (length > score[intent]) {
+                    score[intent] = length;
+                }
+                if (phraseQualifier[phrase]) {
+                    qualified[intent] = true;
+                } else if (intents[intent].leading && from == 0) {
+                    // The opening trigger is the span the handler reads its argument after
+                    start[intent] = 0;
+                    end[intent] = Math.max(end[intent], i + 1);
+                    leadEnd = Math.max(leadEnd, i + 1);
+                } else if (start[intent] < 0 || !(intents[intent].leading && start[intent] == 0)
+                        && length > end[intent] - start[intent]) {
+                    start[intent] = from;
+                    end[intent] = i + 1;
+                }
+            }
+        }
+
+        int[] ranked = new int[count];
+        int[] tier = new int[count];
+        int size = 0;
+        for (int intent = 0; intent < count; intent++) {
+            if (start[intent] < 0) continue;
+            if (intents[intent].qualifiers.length > 0 && !qualified[intent]) continue;
+            tier[intent] = start[intent] < leadEnd ? 1 : 0;
+
+            // Insertion keeps the list ordered by tier, then score, then declaration order
+            int pos = size++;
+            while (pos > 0 && outranks(intent, ranked[pos - 1], tier, score)) {
+                ranked[pos] = ranked[pos - 1];
+                pos--;
+            }
+            ranked[pos] = intent;
+        }
+
+        VoxIntent[] matched = new VoxIntent[size];
+        int[] matchStart = new int[size];
+        int[] matchEnd = new int[size];
+        for (int r = 0; r < size; r++) {
+            matched[r] = intents[ranked[r]];
+            matchStart[r] = start[ranked[r]];
+            matchEnd[r] = end[ranked[r]];
+        }
+        return new Result(matched, matchStart, matchEnd);
+    }
+
+    private static boolean outranks(int intent, int other, int[] tier, int[] score) {
+        if (tier[intent] != tier[other]) return tier[intent] > tier[other];
+        return score[intent] > score[other];
+    }
+
+    private static boolean isBoundaryBefore(CharSequence text, int index) {
+        return index == 0 || !Character.isLetterOrDigit(text.charAt(index - 1));
+    }
+
+    private static boolean isBoundaryAfter(CharSequence text, int index, int phraseLength) {
+        if (index >= text.length() || !Character.isLetterOrDigit(text.charAt(index))) {
+            return true;
+        }
+        // Allow a trailing plural "s" so "jokes" and "cat facts" still match
+        return phraseLength >= MIN_PLURAL_PHRASE_LENGTH
+                && Character.toLowerCase(text.charAt(index)) == 's'
+                && (index + 1 >= text.length() || !Character.isLetterOrDigit(text.charAt(index + 1)));
+    }
+
+    private static int symbolOf(char c) {
+        if (c >= 'A' && c <= 'Z') return c - 'A';
+        if (c >= 'a' && c <= 'z') return c - 'a';
+        if (c >= '0' && c <= '9') return 26 + (c - '0');
+        if (c == '\'') return SYMBOL_APOSTROPHE;
+        if (Character.isWhitespace(c)) return SYMBOL_SPACE;
+        return SYMBOL_OTHER;
+    }
+
+    private static int[] newNode() {
+        int[] node = new int[ALPHABET];
+        Arrays.fill(node, -1);
+        return node;
+    }
+
+    public static final class Result {
+        private final VoxIntent[] intents;
+        private final int[] starts;
+        private final int[] ends;
+
+        Result(VoxIntent[] intents, int[] starts, int[] ends) {
+            this.intents = intents;
+            this.starts = starts;
+            this.ends = ends;
+        }
+
+        public int size() {
+            return intents.length;
+        }
+
+        public boolean isEmpty() {
+            return intents.length == 0;
+        }
+
+        public VoxIntent intent(int rank) {
+            return intents[rank];
+        }
+
+        // Span of the trigger phrase that selected the intent at this rank
+        public int start(int rank) {
+            return starts[rank];
+        }
+
+        public int end(int rank) {
+            return ends[rank];
+        }
+    }
+}
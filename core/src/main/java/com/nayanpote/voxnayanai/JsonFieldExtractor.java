@@ -0,0 +1,131 @@
+package com.nayanpote.voxnayanai;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pulls a fixed set of scalar fields out of a JSON stream without building a DOM.
+ * Paths are dot separated; array indexes are plain numbers and "*" matches the first
+ * key or element, e.g. "0.name.common", "0.currencies.*.name", "results.0.question".
+ * Subtrees that cannot lead to a wanted path are skipped, and reading stops as soon as
+ * every path has been resolved.
+ */
+public final class JsonFieldExtractor {
+
+    private static final String WILDCARD = "*";
+
+    private final String[] paths;
+    private final String[][] segments;
+    private final int maxDepth;
+
+    public JsonFieldExtractor(String... paths) {
+        this.paths = paths.clone();
+        this.segments = new String[paths.length][];
+        int depth = 0;
+        for (int i = 0; i < paths.length; i++) {
+            segments[i] = paths[i].isEmpty() ? new String[0] : paths[i].split("\\.");
+            depth = Math.max(depth, segments[i].length);
+        }
+        this.maxDepth = depth;
+    }
+
+    /**
+     * Reads from the stream until every path is resolved or the document ends. Missing
+     * fields and JSON nulls are simply absent from the result. The reader is not closed.
+     */
+    public Map<String, String> extract(Reader source) throws IOException {
+        Map<String, String> values = new HashMap<>();
+        List<Integer> pending = new ArrayList<>(paths.length);
+        for (int i = 0; i < paths.length; i++) {
+            pending.add(i);
+        }
+
+        JsonReader reader = new JsonReader(source);
+        reader.setLenient(true);
+        read(reader, new String[maxDepth], 0, values, pending);
+        return values;
+    }
+
+    // Returns true once nothing is pending, which unwinds the walk without reading further
+    private boolean read(JsonReader reader, String[] path, int depth,
+                         Map<String, String> values, List<Integer> pending) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.BEGIN_OBJECT) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (depth < maxDepth) {
+                    path[depth] = name;
+                    if (leadsToPending(path, depth + 1, pending)) {
+                        if (read(reader, path, depth + 1, values, pending)) return true;
+                        continue;
+                    }
+                }
+                reader.skipValue();
+            }
+            reader.endObject();
+            return false;
+        }
+
+        if (token == JsonToken.BEGIN_ARRAY) {
+            reader.beginArray();
+            int index = 0;
+            while (reader.hasNext()) {
+                if (depth < maxDepth) {
+                    path[depth] = Integer.toString(index);
+                    if (leadsToPending(path, depth + 1, pending)) {
+                        if (read(reader, path, depth + 1, values, pending)) return true;
+                        index++;
+                        continue;
+                    }
+                }
+                reader.skipValue();
+                index++;
+            }
+            reader.endArray();
+            return false;
+        }
+
+        String value;
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            value = null;
+        } else if (token == JsonToken.BOOLEAN) {
+            value = String.valueOf(reader.nextBoolean());
+        } else {
+            // Strings and numbers; numbers keep their literal form
+            value = reader.nextString();
+        }
+
+        for (int i = pending.size() - 1; i >= 0; i--) {
+            int candidate = pending.get(i);
+            if (segments[candidate].length == depth && matches(segments[candidate], path, depth)) {
+                if (value != null) values.put(paths[candidate], value);
+                pending.remove(i);
+            }
+        }
+        return pending.isEmpty();
+    }
+
+    private boolean leadsToPending(String[] path, int depth, List<Integer> pending) {
+        for (int i = 0; i < pending.size(); i++) {
+            String[] wanted = segments[pending.get(i)];
+            if (wanted.length >= depth && matches(wanted, path, depth)) return true;
+        }
+        return false;
+    }
+
+    private static boolean matches(String[] wanted, String[] path, int depth) {
+        for (int d = 0; d < depth; d++) {
+            if (!WILDCARD.equals(wanted[d]) && !wanted[d].equals(path[d])) return false;
+        }
+        return true;
+    }
+}
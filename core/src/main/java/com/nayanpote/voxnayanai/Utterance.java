@@ -0,0 +1,185 @@
+package com.nayanpote.voxnayanai;
+
+/**
+ * One recognized command, normalized once: lowercased, trimmed and with runs of whitespace
+ * collapsed to single spaces. Tokens are kept as offsets into that text and classified while
+ * scanning, so slot extractors read numbers, names and handles without re-splitting the
+ * string, compiling regexes or parsing through exceptions.
+ */
+public final class Utterance {
+
+    // Token flags, set during the single scan
+    private static final int HAS_LETTER = 1;
+    private static final int HAS_DIGIT = 1 << 1;
+    private static final int HAS_OTHER = 1 << 2;
+    private static final int IS_NUMBER = 1 << 3;
+
+    private static final int INITIAL_TOKENS = 8;
+
+    private final String text;
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] flags;
+    private final int count;
+
+    private Utterance(String text, int[] starts, int[] ends, int[] flags, int count) {
+        this.text = text;
+        this.starts = starts;
+        this.ends = ends;
+        this.flags = flags;
+        this.count = count;
+    }
+
+    public static Utterance parse(CharSequence raw) {
+        int length = raw == null ? 0 : raw.length();
+        StringBuilder normalized = new StringBuilder(length);
+        int tokenStart = -1;
+        int tokenFlags = 0;
+        // Offsets are into the normalized text being built
+        int[] scratchStarts = new int[INITIAL_TOKENS];
+        int[] scratchEnds = new int[INITIAL_TOKENS];
+        int[] scratchFlags = new int[INITIAL_TOKENS];
+        int tokens = 0;
+
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? raw.charAt(i) : ' ';
+            if (Character.isWhitespace(c)) {
+                if (tokenStart >= 0) {
+                    if (tokens == scratchStarts.length) {
+                        scratchStarts = grow(scratchStarts);
+                        scratchEnds = grow(scratchEnds);
+                        scratchFlags = grow(scratchFlags);
+                    }
+                    int end = normalized.length();
+                    scratchStarts[tokens] = tokenStart;
+                    scratchEnds[tokens] = end;
+                    scratchFlags[tokens] = tokenFlags | (isNumber(normalized, tokenStart, end) ? IS_NUMBER : 0);
+                    tokens++;
+                    tokenStart = -1;
+                    tokenFlags = 0;
+                }
+                continue;
+            }
+
+            if (tokenStart < 0) {
+                if (normalized.length() > 0) normalized.append(' ');
+                tokenStart = normalized.length();
+            }
+            char lower = Character.toLowerCase(c);
+            normalized.append(lower);
+            if (Character.isLetter(lower)) {
+                tokenFlags |= HAS_LETTER;
+            } else if (lower >= '0' && lower <= '9') {
+                tokenFlags |= HAS_DIGIT;
+            } else {
+                tokenFlags |= HAS_OTHER;
+            }
+        }
+
+        return new Utterance(normalized.toString(), scratchStarts, scratchEnds, scratchFlags, tokens);
+    }
+
+    public String text() {
+        return text;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public String token(int index) {
+        return text.substring(starts[index], ends[index]);
+    }
+
+    public int start(int index) {
+        return starts[index];
+    }
+
+    public boolean tokenEquals(int index, String word) {
+        int length = ends[index] - starts[index];
+        return length == word.length() && text.regionMatches(starts[index], word, 0, length);
+    }
+
+    // First token equal to the word, or -1
+    public int indexOf(String word) {
+        for (int i = 0; i < count; i++) {
+            if (tokenEquals(i, word)) return i;
+        }
+        return -1;
+    }
+
+    public boolean isNumber(int index) {
+        return (flags[index] & IS_NUMBER) != 0;
+    }
+
+    public boolean isAlphabetic(int index) {
+        return flags[index] == HAS_LETTER;
+    }
+
+    // Text of the first integer token, e.g. "42" in "tell me about 42"; null if there is none
+    public String firstNumber() {
+        for (int i = 0; i < count; i++) {
+            if (isNumber(i)) return token(i);
+        }
+        return null;
+    }
+
+    // Everything after the given offset in the normalized text, trimmed
+    public String textAfter(int offset) {
+        if (offset >= text.length()) return "";
+        return text.substring(offset).trim();
+    }
+
+    /**
+     * The token's letters only, dropping punctuation and digits ("nayan's" -> "nayans").
+     * Used for spoken first names.
+     */
+    public String letters(int index) {
+        StringBuilder result = new StringBuilder(ends[index] - starts[index]);
+        for (int i = starts[index]; i < ends[index]; i++) {
+            char c = text.charAt(i);
+            if (c >= 'a' && c <= 'z') result.append(c);
+        }
+        return result.toString();
+    }
+
+    // The token reduced to the characters allowed in a GitHub login: a-z, 0-9 and '-'
+    public String handle(int index) {
+        StringBuilder result = new StringBuilder(ends[index] - starts[index]);
+        for (int i = starts[index]; i < ends[index]; i++) {
+            char c = text.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '-') result.append(c);
+        }
+        return result.toString();
+    }
+
+    // Optional sign then digits that fit in an int, the same inputs Integer.parseInt accepts
+    private static boolean isNumber(CharSequence text, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        if (i == end) return false;
+
+        long value = 0;
+        for (; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return false;
+            value = value * 10 + (c - '0');
+            if (value > (negative ? -(long) Integer.MIN_VALUE : Integer.MAX_VALUE)) return false;
+        }
+        return true;
+    }
+
+    private static int[] grow(int[] array) {
+        int[] grown = new int[array.length * 2];
+        System.arraycopy(array, 0, grown, 0, array.length);
+        return grown;
+    }
+}
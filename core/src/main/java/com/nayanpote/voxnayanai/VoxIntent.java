@@ -0,0 +1,85 @@
+package com.nayanpote.voxnayanai;
+
+public enum VoxIntent {
+
+    // System commands
+    VOLUME_UP(new String[]{"volume up", "increase volume"}),
+    VOLUME_DOWN(new String[]{"volume down", "decrease volume", "lower volume"}),
+    TIME(new String[]{"what time", "current time", "time is"}),
+    DATE(new String[]{"what date", "today's date", "current date"}),
+    BATTERY(new String[]{"battery", "battery level"}),
+    NETWORK_STATUS(new String[]{"wifi", "internet connection", "connection"}),
+
+    // App commands
+    APP_LAUNCH(new String[]{"open", "launch", "start"}, null, false, true),
+    MUSIC(new String[]{"play music", "music", "songs"}),
+    CAMERA(new String[]{"camera", "take photo", "take picture"}),
+    DIALER(new String[]{"call", "phone", "dial"}),
+    CALCULATOR(new String[]{"calculator", "calculate"}),
+    BROWSER(new String[]{"browser", "internet", "chrome", "firefox"}),
+
+    // Information queries
+    INFO_QUERY(new String[]{"what is", "tell me about", "define", "explain", "who is"}, null, true, true),
+    WEATHER(new String[]{"weather", "temperature"}),
+    NEWS(new String[]{"news", "latest news", "tech news"}, null, true),
+
+    // Entertainment commands
+    JOKE(new String[]{"tell me a joke", "joke", "funny"}),
+    CAT_FACT(new String[]{"cat fact", "tell me about cats"}),
+    DOG_FACT(new String[]{"dog fact", "tell me about dogs"}),
+    NUMBER_FACT(new String[]{"number"}, new String[]{"fact", "trivia"}, false),
+    QUOTE(new String[]{"quote", "inspire me", "motivation"}),
+    PROGRAMMING_QUOTE(new String[]{"programming quote", "coding quote"}),
+    TRIVIA(new String[]{"trivia", "quiz", "question"}),
+    ADVICE(new String[]{"advice", "suggestion"}),
+    RIDDLE(new String[]{"riddle", "puzzle"}),
+    ACTIVITY(new String[]{"activity", "bored", "what to do"}),
+    DICE(new String[]{"roll dice", "dice roll", "random number"}),
+    COIN(new String[]{"flip coin", "coin flip", "heads or tails"}),
+
+    // API features
+    CRYPTO(new String[]{"crypto", "bitcoin", "cryptocurrency"}),
+    NAME_ANALYSIS(new String[]{"name", "tell me about my name"},
+            new String[]{"analyze", "analyse", "predict", "tell me about my name"}, false),
+    UNIVERSITY(new String[]{"university", "college", "search university"}),
+    GITHUB(new String[]{"github", "git hub"}),
+    RANDOM_FACT(new String[]{"random fact", "interesting fact"}),
+
+    // General conversation
+    GREETING(new String[]{"hello", "hi", "hey"}),
+    HOW_ARE_YOU(new String[]{"how are you", "how do you do"}),
+    CAPABILITIES(new String[]{"what can you do", "help", "capabilities"}),
+    THANKS(new String[]{"thank you", "thanks"}),
+    GOODBYE(new String[]{"goodbye", "bye", "see you"}),
+    IDENTITY(new String[]{"who are you", "what are you"}),
+    CREATOR(new String[]{"who made you", "who is your developer", "who created you"}),
+    AFFECTION(new String[]{"love you", "like you"});
+
+    // Phrases that select this intent; the matched span is reported back to the handler
+    final String[] triggers;
+    // When present, at least one of these must also occur somewhere in the utterance
+    final String[] qualifiers;
+    final boolean requiresNetwork;
+    // A verb-like trigger that opens the utterance takes the rest of it as its argument, so
+    // "what is motivation" is a lookup and "open spotify music" launches Spotify
+    final boolean leading;
+
+    VoxIntent(String[] triggers) {
+        this(triggers, null, false);
+    }
+
+    VoxIntent(String[] triggers, String[] qualifiers, boolean requiresNetwork) {
+        this(triggers, qualifiers, requiresNetwork, false);
+    }
+
+    VoxIntent(String[] triggers, String[] qualifiers, boolean requiresNetwork, boolean leading) {
+        this.triggers = triggers;
+        this.qualifiers = qualifiers != null ? qualifiers : new String[0];
+        this.requiresNetwork = requiresNetwork;
+        this.leading = leading;
+    }
+
+    public boolean requiresNetwork() {
+        return requiresNetwork;
+    }
+}
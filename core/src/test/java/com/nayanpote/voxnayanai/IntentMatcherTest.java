@@ -0,0 +1,84 @@
+package com.nayanpote.voxnayanai;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IntentMatcherTest {
+
+    private static final IntentMatcher MATCHER = IntentMatcher.compile(VoxIntent.values());
+
+    private static IntentMatcher.Result classify(String command) {
+        return MATCHER.classify(Utterance.parse(command).text());
+    }
+
+    private static VoxIntent top(String command) {
+        IntentMatcher.Result result = classify(command);
+        assertTrue("No intent for \"" + command + "\"", result.size() > 0);
+        return result.intent(0);
+    }
+
+    @Test
+    public void leadingQuestionWinsOverTopicInItsArgument() {
+        assertEquals(VoxIntent.INFO_QUERY, top("what is cryptocurrency"));
+        assertEquals(VoxIntent.INFO_QUERY, top("what is motivation"));
+        assertEquals(VoxIntent.INFO_QUERY, top("what is the internet"));
+        assertEquals(VoxIntent.INFO_QUERY, top("Tell me about the Eiffel Tower"));
+    }
+
+    @Test
+    public void leadingLaunchWinsOverAppNameInItsArgument() {
+        assertEquals(VoxIntent.APP_LAUNCH, top("open spotify music"));
+        assertEquals(VoxIntent.APP_LAUNCH, top("launch the camera app"));
+    }
+
+    @Test
+    public void leadingSpanIsTheOpeningTrigger() {
+        IntentMatcher.Result result = classify("what is cryptocurrency");
+        assertEquals(0, result.start(0));
+        assertEquals("what is".length(), result.end(0));
+    }
+
+    @Test
+    public void longerPhraseOverlappingTheLeadingTriggerStillWins() {
+        assertEquals(VoxIntent.CAT_FACT, top("tell me about cats"));
+        assertEquals(VoxIntent.CREATOR, top("who is your developer"));
+    }
+
+    @Test
+    public void withoutLeadingTriggerLongestPhraseWins() {
+        assertEquals(VoxIntent.PROGRAMMING_QUOTE, top("give me a programming quote"));
+        assertEquals(VoxIntent.MUSIC, top("play some music"));
+        assertEquals(VoxIntent.CRYPTO, top("bitcoin price"));
+        assertEquals(VoxIntent.TIME, top("what time is it"));
+    }
+
+    @Test
+    public void leadingTriggerLaterInTheUtteranceIsNotPromoted() {
+        assertEquals(VoxIntent.CRYPTO, top("is cryptocurrency what is next"));
+    }
+
+    @Test
+    public void qualifiedIntentNeedsItsQualifier() {
+        assertEquals(VoxIntent.NUMBER_FACT, top("tell me a fact about the number 42"));
+        IntentMatcher.Result result = classify("pick a number");
+        for (int rank = 0; rank < result.size(); rank++) {
+            assertTrue(result.intent(rank) != VoxIntent.NUMBER_FACT);
+        }
+    }
+
+    @Test
+    public void shortTriggersMatchWholeWordsOnly() {
+        IntentMatcher.Result result = classify("this is his");
+        for (int rank = 0; rank < result.size(); rank++) {
+            assertTrue(result.intent(rank) != VoxIntent.GREETING);
+        }
+        assertEquals(VoxIntent.JOKE, top("tell me some jokes"));
+    }
+
+    @Test
+    public void nothingMatchesNoise() {
+        assertEquals(0, classify("hmm").size());
+    }
+}
@@ -21,3 +21,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "VoxNayanAI"
 include(":app")
+include(":core")